@@ -0,0 +1,80 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import util.CsvReader;
+import util.CsvUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+// CSV hot paths: parsing an import file record by record, and escaping fields
+// for export. Throughput is per row: each invocation handles ROWS rows, and JMH's
+// @OperationsPerInvocation needs that count as a constant, so it isn't a @Param.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    // Share of rows with quoted fields (commas and doubled quotes)
+    @Param({"0", "25"})
+    int quotedPercent;
+
+    private String csv;
+    private String[][] records;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(ROWS * 96);
+        sb.append(CsvUtils.HEADER).append('\n');
+        records = new String[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            boolean quoted = i % 100 < quotedPercent;
+            String[] record = {
+                    "First" + i,
+                    quoted ? "O\"Neil, Jr" : "Last" + i,
+                    quoted ? "Arts, Media & Design" : "Computer Science",
+                    "Computer Science",
+                    "user" + i + "@example.com",
+                    quoted ? "file:/images/a,b.png" : "file:/images/" + i + ".png"
+            };
+            records[i] = record;
+            for (int f = 0; f < record.length; f++) {
+                if (f > 0) {
+                    sb.append(',');
+                }
+                sb.append(CsvUtils.escape(record[f]));
+            }
+            sb.append('\n');
+        }
+        csv = sb.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parse(Blackhole bh) throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            reader.readRecord();
+            String[] record;
+            while ((record = reader.readRecord()) != null) {
+                bh.consume(record);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void escape(Blackhole bh) {
+        for (String[] record : records) {
+            for (String field : record) {
+                bh.consume(CsvUtils.escape(field));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package benchmarks;
+
+import dao.ConnectionPool.PooledConnection;
+import dao.DbConnectivityClass;
+import model.Person;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// DbConnectivityClass round trips against a local MySQL or MariaDB server. The
+// fork points the DAO at localhost through the -Dcsc311.db.* properties; use
+// -jvmArgsAppend on the command line to target another server. The schema is
+// created on first use and every row written here is removed afterwards.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Dcsc311.db.serverUrl=jdbc:mysql://localhost:3306/",
+        "-Dcsc311.db.name=csc311_bench",
+        "-Dcsc311.db.user=root",
+        "-Dcsc311.db.password="
+})
+public class DaoBenchmark {
+
+    private static final String EMAIL_PREFIX = "bench-";
+
+    // Rows in the table while getData is measured
+    @Param({"1000"})
+    int tableRows;
+
+    private final DbConnectivityClass dao = new DbConnectivityClass();
+    private final AtomicLong sequence = new AtomicLong();
+    private Person edited;
+    private Person toDelete;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        DbConnectivityClass.ensureSchema();
+        deleteBenchmarkRows();
+        for (int i = 0; i < tableRows; i++) {
+            dao.insertUser(newPerson());
+        }
+        edited = newPerson();
+        dao.insertUser(edited);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        deleteBenchmarkRows();
+        DbConnectivityClass.getPool().close();
+    }
+
+    // deleteRecord needs a fresh row each time; inserting it is not measured.
+    @Setup(Level.Invocation)
+    public void insertRowToDelete(BenchmarkParams params) {
+        if (params.getBenchmark().endsWith("deleteRecord")) {
+            toDelete = newPerson();
+            dao.insertUser(toDelete);
+        }
+    }
+
+    @Benchmark
+    public int insertUser() {
+        return dao.insertUser(newPerson());
+    }
+
+    @Benchmark
+    public Person editUser() {
+        edited.setDepartment("Department " + sequence.incrementAndGet());
+        dao.editUser(edited.getId(), edited);
+        return edited;
+    }
+
+    @Benchmark
+    public void deleteRecord() {
+        dao.deleteRecord(toDelete);
+    }
+
+    @Benchmark
+    public List<Person> getData() {
+        return dao.getData();
+    }
+
+    private Person newPerson() {
+        long n = sequence.incrementAndGet();
+        return new Person("Bench", "User", "Computer Science", "Computer Science",
+                EMAIL_PREFIX + n + "-" + System.nanoTime() + "@example.com", "");
+    }
+
+    private static void deleteBenchmarkRows() throws SQLException {
+        try (PooledConnection conn = DbConnectivityClass.getPool().borrow()) {
+            conn.prepare("DELETE FROM users WHERE email LIKE '" + EMAIL_PREFIX + "%'").executeUpdate();
+        }
+        DbConnectivityClass.getCache().clear();
+    }
+}
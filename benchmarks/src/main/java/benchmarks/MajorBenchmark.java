@@ -0,0 +1,25 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import viewmodel.Major;
+
+import java.util.concurrent.TimeUnit;
+
+// The display-name lookup done for every row selected in the table (selectedItemTV).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MajorBenchmark {
+
+    // First and last constant; a hash lookup should cost the same for both
+    @Param({"Computer Science", "business"})
+    String majorName;
+
+    @Benchmark
+    public Major fromString() {
+        return Major.fromString(majorName);
+    }
+}
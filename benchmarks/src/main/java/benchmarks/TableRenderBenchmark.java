@@ -0,0 +1,224 @@
+package benchmarks;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.util.Callback;
+import model.Person;
+import model.PersonColumns;
+import model.PersonRow;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// What the table does per frame while scrolling through 100k users. Like VirtualFlow,
+// the cells of rows that scrolled out are reused for the rows that scrolled in; each
+// of those asks its column for the new row's observable value, reads it, and moves
+// its listener over from the previous one (as TableCell.updateItem does).
+//
+// propertyValueFactory is the old wiring: getters only, so every cell update looks
+// the getter up reflectively and wraps the value in a new ReadOnlyObjectWrapper.
+// lambda returns Person's own properties, which are created the first time a row
+// is shown and reused afterwards. columnar is the controller's wiring for PersonColumns
+// rows: one view per row (ColumnarPersonList.get hands it to every cell of the row)
+// and a constant PersonRow.Value per cell.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableRenderBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int VISIBLE_ROWS = 30;
+    private static final int ROWS_PER_FRAME = 3;
+
+    // Person as it was before it had properties.
+    public static class PlainPerson {
+        private final Integer id;
+        private final String firstName;
+        private final String lastName;
+        private final String department;
+        private final String major;
+        private final String email;
+
+        public PlainPerson(Integer id, String firstName, String lastName, String department, String major, String email) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.department = department;
+            this.major = major;
+            this.email = email;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public String getLastName() {
+            return lastName;
+        }
+
+        public String getDepartment() {
+            return department;
+        }
+
+        public String getMajor() {
+            return major;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+
+    private final List<PlainPerson> plainRows = new ArrayList<>(ROWS);
+    private final List<Person> rows = new ArrayList<>(ROWS);
+    private final PersonColumns columnStore = new PersonColumns(ROWS);
+    private List<TableColumn<PlainPerson, ?>> reflectiveColumns;
+    private List<TableColumn<Person, ?>> lambdaColumns;
+    private List<TableColumn<Person, ?>> columnarColumns;
+
+    private final InvalidationListener rowUpdateObserver = observable -> { };
+    private final InvalidationListener weakObserver = new WeakInvalidationListener(rowUpdateObserver);
+    // One cell per visible row and column; row r is shown by the cells of slot r % VISIBLE_ROWS.
+    private ObservableValue<?>[] cells;
+    private int top;
+    // Rows [from, to) scrolled in with the last step.
+    private int from;
+    private int to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] majors = {"Computer Science", "English", "Mathematics", "Physics"};
+        String[] departments = {"Computer Systems", "English & Humanities", "Mathematics", "Physics"};
+        for (int i = 1; i <= ROWS; i++) {
+            String firstName = "First" + i;
+            String lastName = "Last" + i;
+            String department = departments[i % departments.length];
+            String major = majors[i % majors.length];
+            String email = "student" + i + "@farmingdale.edu";
+            plainRows.add(new PlainPerson(i, firstName, lastName, department, major, email));
+            rows.add(new Person(i, firstName, lastName, department, major, email, null));
+            columnStore.append(i, firstName, lastName, department, major, email, null);
+        }
+
+        reflectiveColumns = List.of(
+                column(new PropertyValueFactory<PlainPerson, Integer>("id")),
+                column(new PropertyValueFactory<PlainPerson, String>("firstName")),
+                column(new PropertyValueFactory<PlainPerson, String>("lastName")),
+                column(new PropertyValueFactory<PlainPerson, String>("department")),
+                column(new PropertyValueFactory<PlainPerson, String>("major")),
+                column(new PropertyValueFactory<PlainPerson, String>("email")));
+        lambdaColumns = List.of(
+                TableRenderBenchmark.<Person, Integer>column(cell -> cell.getValue().idProperty()),
+                TableRenderBenchmark.<Person, String>column(cell -> cell.getValue().firstNameProperty()),
+                TableRenderBenchmark.<Person, String>column(cell -> cell.getValue().lastNameProperty()),
+                TableRenderBenchmark.<Person, String>column(cell -> cell.getValue().departmentProperty()),
+                TableRenderBenchmark.<Person, String>column(cell -> cell.getValue().majorProperty()),
+                TableRenderBenchmark.<Person, String>column(cell -> cell.getValue().emailProperty()));
+        columnarColumns = List.of(
+                column(cellValue(Person::idProperty, Person::getId)),
+                column(cellValue(Person::firstNameProperty, Person::getFirstName)),
+                column(cellValue(Person::lastNameProperty, Person::getLastName)),
+                column(cellValue(Person::departmentProperty, Person::getDepartment)),
+                column(cellValue(Person::majorProperty, Person::getMajor)),
+                column(cellValue(Person::emailProperty, Person::getEmail)));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCells() {
+        cells = new ObservableValue<?>[VISIBLE_ROWS * 6];
+        top = -ROWS_PER_FRAME;
+    }
+
+    @Benchmark
+    public long propertyValueFactory() {
+        return frame(plainRows, reflectiveColumns);
+    }
+
+    @Benchmark
+    public long lambda() {
+        return frame(rows, lambdaColumns);
+    }
+
+    @Benchmark
+    public long columnar() {
+        long hash = 0;
+        scroll();
+        for (int r = from; r < to; r++) {
+            Person row = columnStore.row(r);
+            for (int c = 0; c < columnarColumns.size(); c++) {
+                hash += updateCell(r % VISIBLE_ROWS * 6 + c, observe(columnarColumns.get(c), row));
+            }
+        }
+        return hash;
+    }
+
+    // One scroll step: the cells of the rows that scrolled in are updated.
+    private <S> long frame(List<S> source, List<TableColumn<S, ?>> columns) {
+        long hash = 0;
+        scroll();
+        for (int r = from; r < to; r++) {
+            S row = source.get(r);
+            for (int c = 0; c < columns.size(); c++) {
+                hash += updateCell(r % VISIBLE_ROWS * 6 + c, observe(columns.get(c), row));
+            }
+        }
+        return hash;
+    }
+
+    // What TableColumn.getCellObservableValue does for a cell, minus the TableView it
+    // needs to be attached to (without one it returns null).
+    private static <S, T> ObservableValue<T> observe(TableColumn<S, T> column, S row) {
+        return column.getCellValueFactory().call(new CellDataFeatures<>(null, column, row));
+    }
+
+    private int updateCell(int cell, ObservableValue<?> value) {
+        ObservableValue<?> previous = cells[cell];
+        if (previous != value) {
+            if (previous != null) {
+                previous.removeListener(weakObserver);
+            }
+            value.addListener(weakObserver);
+            cells[cell] = value;
+        }
+        Object item = value.getValue();
+        return item == null ? 0 : item.hashCode();
+    }
+
+    // Moves down ROWS_PER_FRAME rows; at the end it jumps back to the top, showing a full screen of new rows.
+    private void scroll() {
+        int previous = top;
+        top += ROWS_PER_FRAME;
+        if (top > ROWS - VISIBLE_ROWS) {
+            top = 0;
+        }
+        from = top > previous && previous >= 0 ? previous + VISIBLE_ROWS : top;
+        to = top + VISIBLE_ROWS;
+    }
+
+    // As DB_GUI_Controller.cellValue.
+    private static <T> Callback<CellDataFeatures<Person, T>, ObservableValue<T>> cellValue(
+            Function<Person, ObservableValue<T>> property, Function<Person, T> getter) {
+        return cell -> cell.getValue() instanceof PersonRow row
+                ? new PersonRow.Value<>(getter.apply(row)) : property.apply(cell.getValue());
+    }
+
+    private static <S, T> TableColumn<S, T> column(Callback<CellDataFeatures<S, T>, ObservableValue<T>> factory) {
+        TableColumn<S, T> column = new TableColumn<>();
+        column.setCellValueFactory(factory);
+        return column;
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import util.FormValidator;
+import util.ValidationUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Form validation as it runs on every keystroke.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"valid", "invalid"})
+    String input;
+
+    private String name;
+    private String email;
+    private String department;
+    private FormValidator form;
+
+    @Setup
+    public void setUp() {
+        boolean valid = input.equals("valid");
+        name = valid ? "Mary-Jane O'Connor" : "Mary-Jane O'Connor 3rd";
+        email = valid ? "mary.jane.oconnor@farmingdale.edu" : "mary.jane.oconnor@farmingdale";
+        department = valid ? "Arts & Sciences" : "Arts/Sciences";
+        form = new FormValidator(FormValidator.Field.values());
+        form.update(FormValidator.Field.FIRST_NAME, name);
+        form.update(FormValidator.Field.LAST_NAME, name);
+        form.update(FormValidator.Field.DEPARTMENT, department);
+        form.update(FormValidator.Field.MAJOR, "Computer Science");
+    }
+
+    @Benchmark
+    public boolean isValidName() {
+        return ValidationUtils.isValidName(name);
+    }
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return ValidationUtils.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean isValidDepartment() {
+        return ValidationUtils.isValidDepartment(department);
+    }
+
+    // A keystroke in the email field: only that field is re-checked.
+    @Benchmark
+    public boolean keystroke() {
+        form.update(FormValidator.Field.EMAIL, email);
+        return form.isValid();
+    }
+
+    @Benchmark
+    public String formatValidationErrors() {
+        return ValidationUtils.formatValidationErrors(name, name, email, department);
+    }
+}
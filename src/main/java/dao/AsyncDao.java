@@ -0,0 +1,95 @@
+package dao;
+
+import model.Person;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Asynchronous facade over DbConnectivityClass: every call runs on a DB worker
+// thread and returns a CompletableFuture, so no JDBC call has to run on the
+// JavaFX Application Thread. The futures complete on the worker thread; callers
+// hop back to the UI thread themselves.
+//
+// The project targets Java 20, where virtual threads are still a preview
+// feature, so the workers are a fixed pool of daemon platform threads sized to
+// the connection pool; more threads would only queue for a connection.
+public class AsyncDao {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(DbConnectivityClass.POOL_MAX_SIZE, r -> {
+        Thread t = new Thread(r, "db-worker-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final DbConnectivityClass cnUtil;
+
+    public AsyncDao(DbConnectivityClass cnUtil) {
+        this.cnUtil = cnUtil;
+    }
+
+    public DbConnectivityClass getDao() {
+        return cnUtil;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, EXECUTOR);
+    }
+
+    public CompletableFuture<Void> run(Runnable work) {
+        return CompletableFuture.runAsync(work, EXECUTOR);
+    }
+
+    public CompletableFuture<Integer> countUsers(UserQuery query) {
+        return supply(() -> cnUtil.countUsers(query));
+    }
+
+    public CompletableFuture<List<Person>> queryUsers(UserQuery query) {
+        return supply(() -> cnUtil.queryUsers(query));
+    }
+
+    public CompletableFuture<UserChanges> loadUsers(UserQuery query) {
+        return supply(() -> cnUtil.loadUsers(query));
+    }
+
+    public CompletableFuture<UserChanges> fetchChangesSince(Timestamp since, UserQuery query) {
+        return supply(() -> cnUtil.fetchChangesSince(since, query));
+    }
+
+    public CompletableFuture<Person> findById(int id) {
+        return supply(() -> cnUtil.findById(id));
+    }
+
+    public CompletableFuture<Person> findByEmail(String email) {
+        return supply(() -> cnUtil.findByEmail(email));
+    }
+
+    public CompletableFuture<Integer> insertUser(Person person) {
+        return supply(() -> cnUtil.insertUser(person));
+    }
+
+    public CompletableFuture<Integer> upsertUser(Person person) {
+        return supply(() -> cnUtil.upsertUser(person));
+    }
+
+    public CompletableFuture<Void> editUser(int id, Person person) {
+        return run(() -> cnUtil.editUser(id, person));
+    }
+
+    public CompletableFuture<Void> applyBatch(List<Person> inserts, List<Person> updates) {
+        return run(() -> cnUtil.applyBatch(inserts, updates));
+    }
+
+    public CompletableFuture<Void> deleteRecord(Person person) {
+        return run(() -> cnUtil.deleteRecord(person));
+    }
+
+    public CompletableFuture<Integer> deleteRecords(List<Integer> ids) {
+        return supply(() -> cnUtil.deleteRecords(ids));
+    }
+}
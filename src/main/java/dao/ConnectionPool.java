@@ -0,0 +1,277 @@
+package dao;
+
+import metrics.Metrics;
+import metrics.Timer;
+import service.MyLogger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Bounded pool of long-lived JDBC connections so DAO calls don't pay a full
+// TCP + TLS + auth handshake against the remote MySQL server every time.
+public class ConnectionPool {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // Time from asking for a connection to having one, including waiting for a free slot.
+    private static final Timer ACQUIRE_TIMER = Metrics.timer("pool.acquire");
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long idleTimeoutMillis;
+    private final int statementCacheSize;
+
+    // Idle connections, most recently returned first so the hot ones stay warm
+    // and the cold tail is what the evictor closes.
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String username, String password,
+                          int maxSize, int minIdle, long idleTimeoutMillis, int statementCacheSize) {
+        if (maxSize < 1 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: max=" + maxSize + ", minIdle=" + minIdle);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = minIdle;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Opens connections until minIdle are sitting in the pool.
+    public void warmUp() throws SQLException {
+        List<PooledConnection> opened = new ArrayList<>();
+        try {
+            while (idle.size() + opened.size() < minIdle && permits.tryAcquire()) {
+                try {
+                    opened.add(open());
+                } finally {
+                    permits.release();
+                }
+            }
+        } finally {
+            for (PooledConnection pc : opened) {
+                idle.offerFirst(pc);
+            }
+        }
+        MyLogger.get("dao").info("Connection pool warmed up", MyLogger.kv("connections", idle.size()));
+    }
+
+    public PooledConnection borrow(long timeoutMillis) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for a database connection after " + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null) {
+                if (pc.validate()) {
+                    pc.borrowed.set(true);
+                    return pc;
+                }
+                pc.closeQuietly();
+            }
+            pc = open();
+            pc.borrowed.set(true);
+            return pc;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        } finally {
+            ACQUIRE_TIMER.recordSince(start);
+        }
+    }
+
+    public PooledConnection borrow() throws SQLException {
+        return borrow(30_000);
+    }
+
+    void release(PooledConnection pc) {
+        try {
+            if (closed || pc.isBroken() || pc.getConnection().isClosed()) {
+                pc.closeQuietly();
+            } else {
+                pc.reset();
+                pc.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pc);
+            }
+        } catch (SQLException e) {
+            pc.closeQuietly();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            pc.closeQuietly();
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        return new PooledConnection(this, DriverManager.getConnection(url, username, password), statementCacheSize);
+    }
+
+    // Closes connections idle longer than the timeout, but never drops below minIdle.
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && idle.size() > minIdle) {
+            PooledConnection pc = it.next();
+            if (pc.lastUsed < cutoff && idle.remove(pc)) {
+                pc.closeQuietly();
+            }
+        }
+    }
+
+    // A borrowed connection. Closing it hands it back to the pool; prepared
+    // statements obtained through prepare() are cached per connection and must
+    // not be closed by callers.
+    public static class PooledConnection implements AutoCloseable {
+        private final ConnectionPool pool;
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private boolean broken;
+        // Set while lent out; the first close() clears it and hands the connection back.
+        private final AtomicBoolean borrowed = new AtomicBoolean();
+
+        PooledConnection(ConnectionPool pool, Connection connection, int cacheSize) {
+            this.pool = pool;
+            this.connection = connection;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > cacheSize) {
+                        closeStatement(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            return prepare(sql, Statement.NO_GENERATED_KEYS);
+        }
+
+        public PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+            PreparedStatement ps = statements.get(key);
+            if (ps == null || ps.isClosed()) {
+                ps = connection.prepareStatement(sql, autoGeneratedKeys);
+                statements.put(key, ps);
+            } else {
+                ps.clearParameters();
+            }
+            return ps;
+        }
+
+        // Marks the connection as unusable so it is discarded instead of pooled.
+        public void invalidate() {
+            broken = true;
+        }
+
+        // Closing again is a no-op: a second release would put the connection in the
+        // idle deque twice and free a permit that was never taken.
+        @Override
+        public void close() {
+            if (borrowed.compareAndSet(true, false)) {
+                pool.release(this);
+            }
+        }
+
+        boolean isBroken() {
+            return broken;
+        }
+
+        boolean validate() {
+            try {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void reset() throws SQLException {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            for (PreparedStatement ps : statements.values()) {
+                ps.clearBatch();
+            }
+        }
+
+        void closeQuietly() {
+            for (PreparedStatement ps : statements.values()) {
+                closeStatement(ps);
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        private static void closeStatement(PreparedStatement ps) {
+            try {
+                ps.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
@@ -3,91 +3,430 @@ package dao;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import model.Person;
+import model.PersonColumns;
 import service.MyLogger;
+import service.MyLogger.Level;
+import util.CsvUtils;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import dao.ConnectionPool.PooledConnection;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.Timer;
+
 public class DbConnectivityClass {
-    final static String DB_NAME="csc311eryiey";
-        MyLogger lg= new MyLogger();
-        final static String SQL_SERVER_URL = "jdbc:mysql://csc311eryiey.mysql.database.azure.com:3306/";//update this server name
-        final static String DB_URL = SQL_SERVER_URL + DB_NAME;//update this database name
-        final static String USERNAME = "eryiey";// update this username
-        final static String PASSWORD = "Kicker@2007";// update this password
+    // Each connection setting can be overridden with a -Dcsc311.db.* system property,
+    // e.g. to point the benchmarks at a local server.
+    final static String DB_NAME=System.getProperty("csc311.db.name", "csc311eryiey");
+        private static final MyLogger lg = MyLogger.get("dao");
+        final static String SQL_SERVER_URL = System.getProperty("csc311.db.serverUrl", "jdbc:mysql://csc311eryiey.mysql.database.azure.com:3306/");//update this server name
+        // rewriteBatchedStatements lets Connector/J send a JDBC batch as multi-row statements
+        final static String DB_URL = SQL_SERVER_URL + DB_NAME + "?rewriteBatchedStatements=true";//update this database name
+        final static String USERNAME = System.getProperty("csc311.db.user", "eryiey");// update this username
+        final static String PASSWORD = System.getProperty("csc311.db.password", "Kicker@2007");// update this password
+
+        // Pool sizing: a handful of long-lived connections is plenty for one desktop client.
+        final static int POOL_MAX_SIZE = 8;
+        final static int POOL_MIN_IDLE = 2;
+        final static long POOL_IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+        final static int STATEMENT_CACHE_SIZE = 32;
+
+        // Shared by every DbConnectivityClass instance so the controller and the
+        // application reuse the same warm connections.
+        private static final ConnectionPool pool = new ConnectionPool(DB_URL, USERNAME, PASSWORD,
+                POOL_MAX_SIZE, POOL_MIN_IDLE, POOL_IDLE_TIMEOUT_MS, STATEMENT_CACHE_SIZE);
+
+        final static int EXPORT_PROGRESS_INTERVAL = 1000;
+
+        // Write-through cache of users, shared like the pool. Size can be set with -Dcsc311.personCache.size.
+        final static int PERSON_CACHE_SIZE = Integer.getInteger("csc311.personCache.size", 10_000);
+        private static final PersonCache cache = new PersonCache(PERSON_CACHE_SIZE);
+
+        // Department and major names by their integer keys, loaded with the schema.
+        private static final LookupTable departments = new LookupTable("departments", pool);
+        private static final LookupTable majors = new LookupTable("majors", pool);
+
+        // Rows committed up to this long before the previous sync are fetched again, so a
+        // transaction that committed late with an older updated_at is not missed.
+        final static long SYNC_OVERLAP_MS = 2000;
+        // Tombstones older than this are purged; a client that last synced before then reloads fully.
+        final static long TOMBSTONE_RETENTION_MS = 30L * 24 * 60 * 60 * 1000;
+
+        // Per-method latency and row counts, also published over JMX (see metrics.Metrics).
+        private static final Timer GET_DATA_TIMER = Metrics.timer("dao.getData");
+        private static final Timer COUNT_TIMER = Metrics.timer("dao.countUsers");
+        private static final Timer QUERY_TIMER = Metrics.timer("dao.queryUsers");
+        private static final Timer FETCH_CHANGES_TIMER = Metrics.timer("dao.fetchChangesSince");
+        private static final Timer LOAD_COLUMNS_TIMER = Metrics.timer("dao.loadColumns");
+        private static final Timer FIND_TIMER = Metrics.timer("dao.findOne");
+        private static final Timer EXPORT_TIMER = Metrics.timer("dao.exportCSV");
+        private static final Timer INSERT_TIMER = Metrics.timer("dao.insertUser");
+        private static final Timer UPSERT_TIMER = Metrics.timer("dao.upsertUser");
+        private static final Timer UPSERT_BATCH_TIMER = Metrics.timer("dao.upsertBatch");
+        private static final Timer EDIT_TIMER = Metrics.timer("dao.editUser");
+        private static final Timer DELETE_TIMER = Metrics.timer("dao.deleteRecord");
+        private static final Timer DELETE_BATCH_TIMER = Metrics.timer("dao.deleteRecords");
+        private static final Timer APPLY_BATCH_TIMER = Metrics.timer("dao.applyBatch");
+        private static final Counter ROWS_READ = Metrics.counter("dao.rows.read");
+        private static final Counter ROWS_WRITTEN = Metrics.counter("dao.rows.written");
+
+        static {
+            Metrics.gauge("pool.active", pool::getActiveCount);
+            Metrics.gauge("pool.idle", pool::getIdleCount);
+            Metrics.gauge("personCache.size", () -> cache.getStats().size());
+            Metrics.gauge("personCache.hits", () -> cache.getStats().hits());
+            Metrics.gauge("personCache.misses", () -> cache.getStats().misses());
+        }
 
+        public static ConnectionPool getPool() {
+            return pool;
+        }
 
-        private final ObservableList<Person> data = FXCollections.observableArrayList();
+        public static PersonCache getCache() {
+            return cache;
+        }
 
-        // Method to retrieve all data from the database and store it into an observable list to use in the GUI tableview.
+        public static LookupTable getDepartments() {
+            return departments;
+        }
 
+        public static LookupTable getMajors() {
+            return majors;
+        }
+
+        // department_id and major_id are turned into names through the lookup tables, see readPerson.
+        final static String SELECT_USERS = "SELECT users.id, first_name, last_name, department_id, major_id, email, imageURL FROM users";
 
+        // Method to retrieve all data from the database and store it into an observable list to use in the GUI tableview.
+        // Every call returns a new list, so reloading never appends onto rows from a previous call.
         public ObservableList<Person> getData() {
-            connectToDatabase();
+            long start = System.nanoTime();
             try {
-                Connection conn = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
-                String sql = "SELECT * FROM users ";
-                PreparedStatement preparedStatement = conn.prepareStatement(sql);
-                ResultSet resultSet = preparedStatement.executeQuery();
-                if (!resultSet.isBeforeFirst()) {
-                    lg.makeLog("No data");
+                ensureSchema();
+                ObservableList<Person> data = FXCollections.observableArrayList();
+                try (PooledConnection conn = pool.borrow();
+                     ResultSet resultSet = conn.prepare(SELECT_USERS).executeQuery()) {
+                    if (!resultSet.isBeforeFirst()) {
+                        lg.info("No data");
+                    }
+                    while (resultSet.next()) {
+                        Person p = readPerson(resultSet);
+                        cache.put(p);
+                        data.add(p);
+                    }
+                } catch (SQLException e) {
+                    e.printStackTrace();
                 }
-                while (resultSet.next()) {
-                    int id = resultSet.getInt("id");
-                    String first_name = resultSet.getString("first_name");
-                    String last_name = resultSet.getString("last_name");
-                    String department = resultSet.getString("department");
-                    String major = resultSet.getString("major");
-                    String email = resultSet.getString("email");
-                    String imageURL = resultSet.getString("imageURL");
-                    data.add(new Person(id, first_name, last_name, department, major, email, imageURL));
-                }
-                preparedStatement.close();
-                conn.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
+                return data;
+            } finally {
+                GET_DATA_TIMER.recordSince(start);
             }
-            return data;
         }
 
+        public int countUsers() {
+            return countUsers(new UserQuery());
+        }
 
-        public boolean connectToDatabase() {
-            boolean hasRegistredUsers = false;
+        // Number of users matching the query's filters; sort and window are ignored.
+        public int countUsers(UserQuery query) {
+            long start = System.nanoTime();
+            try {
+                ensureSchema();
+                List<Object> params = new ArrayList<>();
+                String sql = "SELECT COUNT(*) FROM users" + whereClause(query, params);
+                try (PooledConnection conn = pool.borrow()) {
+                    PreparedStatement preparedStatement = conn.prepare(sql);
+                    bindParams(preparedStatement, params);
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        return resultSet.next() ? resultSet.getInt(1) : 0;
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            } finally {
+                COUNT_TIMER.recordSince(start);
+            }
+        }
 
+        // Runs the filtering, sorting and windowing in MySQL so only the requested rows
+        // cross the network. last_name, major and department filters use their indexes (the
+        // latter two on the integer keys); the email domain filter is a suffix match and has
+        // to scan. Sorting by department or major joins the lookup table for its names.
+        public List<Person> queryUsers(UserQuery query) {
+            long start = System.nanoTime();
             try {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-
-                //First, connect to MYSQL server and create the database if not created
-                Connection conn = DriverManager.getConnection(SQL_SERVER_URL, USERNAME, PASSWORD);
-                Statement statement = conn.createStatement();
-                statement.executeUpdate("CREATE DATABASE IF NOT EXISTS "+DB_NAME+"");
-                statement.close();
-                conn.close();
-
-                //Second, connect to the database and create the table "users" if cot created
-                conn = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
-                statement = conn.createStatement();
-                String sql = "CREATE TABLE IF NOT EXISTS users (" + "id INT( 10 ) NOT NULL PRIMARY KEY AUTO_INCREMENT,"
-                        + "first_name VARCHAR(200) NOT NULL," + "last_name VARCHAR(200) NOT NULL,"
-                        + "department VARCHAR(200),"
-                        + "major VARCHAR(200),"
-                        + "email VARCHAR(200) NOT NULL UNIQUE,"
-                        + "imageURL VARCHAR(200))";
-                statement.executeUpdate(sql);
-
-                //check if we have users in the table users
-                statement = conn.createStatement();
-                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users");
+                ensureSchema();
+                List<Object> params = new ArrayList<>();
+                StringBuilder sql = new StringBuilder(SELECT_USERS).append(query.getSortColumn().join)
+                        .append(whereClause(query, params));
+
+                String direction = query.isDescending() ? " DESC" : " ASC";
+                sql.append(" ORDER BY ").append(query.getSortColumn().column).append(direction);
+                if (query.getSortColumn() != UserQuery.SortColumn.ID) {
+                    sql.append(", users.id").append(direction);
+                }
+                if (query.getLimit() > 0) {
+                    sql.append(" LIMIT ?");
+                    params.add(query.getLimit());
+                    if (query.getOffset() > 0) {
+                        sql.append(" OFFSET ?");
+                        params.add(query.getOffset());
+                    }
+                }
 
-                if (resultSet.next()) {
-                    int numUsers = resultSet.getInt(1);
-                    if (numUsers > 0) {
-                        hasRegistredUsers = true;
+                List<Person> rows = new ArrayList<>(query.getLimit() > 0 ? query.getLimit() : 16);
+                try (PooledConnection conn = pool.borrow()) {
+                    PreparedStatement preparedStatement = conn.prepare(sql.toString());
+                    bindParams(preparedStatement, params);
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            Person p = readPerson(resultSet);
+                            cache.put(p);
+                            rows.add(p);
+                        }
                     }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
                 }
+                return rows;
+            } finally {
+                QUERY_TIMER.recordSince(start);
+            }
+        }
 
-                statement.close();
-                conn.close();
+        private static String whereClause(UserQuery query, List<Object> params) {
+            StringBuilder where = new StringBuilder();
+            if (query.getLastNamePrefix() != null) {
+                appendCondition(where, "last_name LIKE ?");
+                params.add(escapeLike(query.getLastNamePrefix()) + "%");
+            }
+            if (query.getMajor() != null) {
+                appendCondition(where, "major_id = ?");
+                params.add(majors.find(query.getMajor()));
+            }
+            if (query.getDepartment() != null) {
+                appendCondition(where, "department_id = ?");
+                params.add(departments.find(query.getDepartment()));
+            }
+            if (query.getEmailDomain() != null) {
+                appendCondition(where, "email LIKE ?");
+                params.add("%@" + escapeLike(query.getEmailDomain()));
+            }
+            if (query.getAfterId() != null) {
+                appendCondition(where, "users.id > ?");
+                params.add(query.getAfterId());
+            }
+            return where.toString();
+        }
 
-            } catch (Exception e) {
+        private static void appendCondition(StringBuilder where, String condition) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ").append(condition);
+        }
+
+        private static String escapeLike(String value) {
+            return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        }
+
+        private static void bindParams(PreparedStatement preparedStatement, List<Object> params) throws SQLException {
+            for (int i = 0; i < params.size(); i++) {
+                preparedStatement.setObject(i + 1, params.get(i));
+            }
+        }
+
+        // Full load of the users matching query, stamped with the server time it was taken at.
+        public UserChanges loadUsers(UserQuery query) {
+            Timestamp watermark = serverTime();
+            return new UserChanges(queryUsers(query), List.of(), watermark, true);
+        }
+
+        // Streams every user into columns without keeping a Person per row (or buffering
+        // the result set, see exportCSV), for tables too large to load as a list. Returns
+        // the server time taken before reading, for the next fetchChangesSince.
+        public Timestamp loadColumns(PersonColumns columns) {
+            long start = System.nanoTime();
+            try {
+                Timestamp watermark = serverTime();
+                int rows = 0;
+                try (PooledConnection conn = pool.borrow();
+                     Statement statement = conn.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                    try (ResultSet resultSet = statement.executeQuery(SELECT_USERS)) {
+                        while (resultSet.next()) {
+                            columns.append(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3),
+                                    departments.name(resultSet.getInt(4)), majors.name(resultSet.getInt(5)),
+                                    resultSet.getString(6), resultSet.getString(7));
+                            rows++;
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+                ROWS_READ.add(rows);
+                return watermark;
+            } finally {
+                LOAD_COLUMNS_TIMER.recordSince(start);
+            }
+        }
+
+        // Rows inserted, updated or deleted since the watermark of a previous sync, found
+        // through the updated_at index and the tombstone table, so the cost follows the
+        // change rate rather than the table size. Falls back to a full load when since is
+        // null or older than the tombstone retention.
+        public UserChanges fetchChangesSince(Timestamp since, UserQuery query) {
+            long start = System.nanoTime();
+            try {
+                Timestamp watermark = serverTime();
+                if (since == null || since.getTime() < watermark.getTime() - TOMBSTONE_RETENTION_MS) {
+                    return new UserChanges(queryUsers(query), List.of(), watermark, true);
+                }
+                Timestamp from = new Timestamp(since.getTime() - SYNC_OVERLAP_MS);
+                List<Person> changed = new ArrayList<>();
+                List<Integer> deleted = new ArrayList<>();
+                try (PooledConnection conn = pool.borrow()) {
+                    PreparedStatement preparedStatement = conn.prepare(SELECT_USERS + " WHERE updated_at >= ?");
+                    preparedStatement.setTimestamp(1, from);
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            Person p = readPerson(resultSet);
+                            cache.put(p);
+                            changed.add(p);
+                        }
+                    }
+                    preparedStatement = conn.prepare("SELECT id FROM users_tombstones WHERE deleted_at >= ?");
+                    preparedStatement.setTimestamp(1, from);
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            int id = resultSet.getInt(1);
+                            cache.remove(id);
+                            deleted.add(id);
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+                return new UserChanges(changed, deleted, watermark, false);
+            } finally {
+                FETCH_CHANGES_TIMER.recordSince(start);
+            }
+        }
+
+        private Timestamp serverTime() {
+            ensureSchema();
+            try (PooledConnection conn = pool.borrow();
+                 ResultSet resultSet = conn.prepare("SELECT NOW(3)").executeQuery()) {
+                resultSet.next();
+                return resultSet.getTimestamp(1);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        // Served from the cache when possible; null if there is no such user.
+        public Person findById(int id) {
+            Person cached = cache.getById(id);
+            return cached != null ? cached : findOne("id", id);
+        }
+
+        // Served from the cache when possible; null if there is no such user.
+        public Person findByEmail(String email) {
+            Person cached = cache.getByEmail(email);
+            return cached != null ? cached : findOne("email", email);
+        }
+
+        private Person findOne(String column, Object value) {
+            long start = System.nanoTime();
+            try {
+                ensureSchema();
+                try (PooledConnection conn = pool.borrow()) {
+                    PreparedStatement preparedStatement = conn.prepare(SELECT_USERS + " WHERE " + column + "=?");
+                    preparedStatement.setObject(1, value);
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        if (!resultSet.next()) {
+                            return null;
+                        }
+                        Person p = readPerson(resultSet);
+                        cache.put(p);
+                        return p;
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            } finally {
+                FIND_TIMER.recordSince(start);
+            }
+        }
+
+        static Person readPerson(ResultSet resultSet) throws SQLException {
+            ROWS_READ.increment();
+            return new Person(
+                    resultSet.getInt("id"),
+                    resultSet.getString("first_name"),
+                    resultSet.getString("last_name"),
+                    departments.name(resultSet.getInt("department_id")),
+                    majors.name(resultSet.getInt("major_id")),
+                    resultSet.getString("email"),
+                    resultSet.getString("imageURL"));
+        }
+
+        private static volatile boolean schemaReady = false;
+
+        // Creates the database and applies pending migrations the first time it is
+        // called; afterwards it is a single volatile read, so DAO methods can call it freely.
+        public static void ensureSchema() {
+            if (schemaReady) {
+                return;
+            }
+            synchronized (DbConnectivityClass.class) {
+                if (schemaReady) {
+                    return;
+                }
+                try {
+                    Class.forName("com.mysql.cj.jdbc.Driver");
+                    SchemaManager.createDatabase(SQL_SERVER_URL, DB_NAME, USERNAME, PASSWORD);
+                    int version = new SchemaManager(pool).migrate();
+                    pool.warmUp();
+                    departments.reload();
+                    majors.reload();
+                    pruneTombstones();
+                    schemaReady = true;
+                    lg.info("Database schema is at version {}", version);
+                } catch (Exception e) {
+                    // Leave schemaReady unset so the next DAO call retries the bootstrap.
+                    lg.error("Schema bootstrap failed: {}", e.getMessage(), e);
+                }
+            }
+        }
+
+        // The cutoff is taken from the server's clock, like the watermarks fetchChangesSince compares it with.
+        private static void pruneTombstones() throws SQLException {
+            try (PooledConnection conn = pool.borrow()) {
+                PreparedStatement preparedStatement = conn.prepare(
+                        "DELETE FROM users_tombstones WHERE deleted_at < NOW(3) - INTERVAL ? SECOND");
+                preparedStatement.setLong(1, TOMBSTONE_RETENTION_MS / 1000);
+                preparedStatement.executeUpdate();
+            }
+        }
+
+        public boolean connectToDatabase() {
+            boolean hasRegistredUsers = false;
+            ensureSchema();
+
+            //check if we have users in the table users
+            try (PooledConnection conn = pool.borrow();
+                 ResultSet resultSet = conn.prepare("SELECT EXISTS (SELECT 1 FROM users)").executeQuery()) {
+                if (resultSet.next()) {
+                    hasRegistredUsers = resultSet.getBoolean(1);
+                }
+            } catch (SQLException e) {
                 e.printStackTrace();
             }
 
@@ -95,140 +434,458 @@ public class DbConnectivityClass {
         }
 
         public void queryUserByLastName(String name) {
-            connectToDatabase();
-            try {
-                Connection conn = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
-                String sql = "SELECT * FROM users WHERE last_name = ?";
-                PreparedStatement preparedStatement = conn.prepareStatement(sql);
+            ensureSchema();
+            String sql = "SELECT * FROM users WHERE last_name = ?";
+            try (PooledConnection conn = pool.borrow()) {
+                PreparedStatement preparedStatement = conn.prepare(sql);
                 preparedStatement.setString(1, name);
 
-                ResultSet resultSet = preparedStatement.executeQuery();
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    int count = 0;
+                    // One line per row is only worth reading the columns for at DEBUG.
+                    boolean perRow = lg.isEnabled(Level.DEBUG);
+                    while (resultSet.next()) {
+                        count++;
+                        if (perRow) {
+                            lg.debug("User", MyLogger.kv("id", resultSet.getInt("id")),
+                                    MyLogger.kv("firstName", resultSet.getString("first_name")),
+                                    MyLogger.kv("lastName", resultSet.getString("last_name")),
+                                    MyLogger.kv("major", majors.name(resultSet.getInt("major_id"))),
+                                    MyLogger.kv("department", departments.name(resultSet.getInt("department_id"))));
+                        }
+                    }
+                    lg.info("Users with last name {}", name, MyLogger.kv("count", count));
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
 
-                while (resultSet.next()) {
-                    int id = resultSet.getInt("id");
-                    String first_name = resultSet.getString("first_name");
-                    String last_name = resultSet.getString("last_name");
-                    String major = resultSet.getString("major");
-                    String department = resultSet.getString("department");
+        // Streams the users table straight into writer as CSV (same header and quoting as
+        // the import reads back). Integer.MIN_VALUE is Connector/J's signal to stream a
+        // forward-only result set row by row instead of buffering it, so memory stays flat
+        // however large the table is. Returns the number of rows written.
+        public int exportCSV(Writer writer, BooleanSupplier cancelled, IntConsumer progress) throws SQLException, IOException {
+            long start = System.nanoTime();
+            try {
+                ensureSchema();
+                int rows = 0;
+                try (PooledConnection conn = pool.borrow();
+                     Statement statement = conn.getConnection().createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                    try (ResultSet resultSet = statement.executeQuery(
+                            "SELECT first_name, last_name, department_id, major_id, email, imageURL FROM users ORDER BY id")) {
+                        writer.write(CsvUtils.HEADER);
+                        writer.write('\n');
+                        while (resultSet.next()) {
+                            for (int column = 1; column <= 6; column++) {
+                                if (column > 1) {
+                                    writer.write(',');
+                                }
+                                String value = switch (column) {
+                                    case 3 -> departments.name(resultSet.getInt(column));
+                                    case 4 -> majors.name(resultSet.getInt(column));
+                                    default -> resultSet.getString(column);
+                                };
+                                writer.write(CsvUtils.escape(value));
+                            }
+                            writer.write('\n');
+                            if (++rows % EXPORT_PROGRESS_INTERVAL == 0) {
+                                progress.accept(rows);
+                                if (cancelled.getAsBoolean()) {
+                                    // Closing a streaming result set drains the remaining rows;
+                                    // aborting the connection drops them instead.
+                                    conn.invalidate();
+                                    conn.getConnection().abort(Runnable::run);
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                }
+                progress.accept(rows);
+                ROWS_READ.add(rows);
+                return rows;
+            } finally {
+                EXPORT_TIMER.recordSince(start);
+            }
+        }
 
-                    lg.makeLog("ID: " + id + ", Name: " + first_name + " " + last_name + " "
-                            + ", Major: " + major + ", Department: " + department);
+        public void listAllUsers() {
+            ensureSchema();
+            String sql = "SELECT * FROM users ";
+            try (PooledConnection conn = pool.borrow();
+                 ResultSet resultSet = conn.prepare(sql).executeQuery()) {
+                int count = 0;
+                boolean perRow = lg.isEnabled(Level.DEBUG);
+                while (resultSet.next()) {
+                    count++;
+                    if (perRow) {
+                        lg.debug("User", MyLogger.kv("id", resultSet.getInt("id")),
+                                MyLogger.kv("firstName", resultSet.getString("first_name")),
+                                MyLogger.kv("lastName", resultSet.getString("last_name")),
+                                MyLogger.kv("department", departments.name(resultSet.getInt("department_id"))),
+                                MyLogger.kv("major", majors.name(resultSet.getInt("major_id"))),
+                                MyLogger.kv("email", resultSet.getString("email")));
+                    }
                 }
-                preparedStatement.close();
-                conn.close();
+                lg.info("Listed all users", MyLogger.kv("count", count));
             } catch (SQLException e) {
                 e.printStackTrace();
             }
         }
 
-        public void listAllUsers() {
-            connectToDatabase();
+        final static String INSERT_SQL = "INSERT INTO users (first_name, last_name, department_id, major_id, email, imageURL) VALUES (?, ?, ?, ?, ?, ?)";
+
+        // email is UNIQUE, so a duplicate turns into an update of that row. LAST_INSERT_ID(id)
+        // makes the existing row's id come back as the generated key.
+        final static String UPSERT_SQL = INSERT_SQL + " ON DUPLICATE KEY UPDATE id=LAST_INSERT_ID(id),"
+                + " first_name=VALUES(first_name), last_name=VALUES(last_name), department_id=VALUES(department_id),"
+                + " major_id=VALUES(major_id), imageURL=VALUES(imageURL)";
+
+        // Inserts the person and returns the auto-incremented id from the same round trip.
+        // The id is also set on the person.
+        public int insertUser(Person person) {
+            long start = System.nanoTime();
             try {
-                Connection conn = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
-                String sql = "SELECT * FROM users ";
-                PreparedStatement preparedStatement = conn.prepareStatement(sql);
+                ensureSchema();
+                int id = write(INSERT_SQL, person);
+                lg.debug("A new user was inserted successfully.", MyLogger.kv("id", id));
+                return id;
+            } finally {
+                INSERT_TIMER.recordSince(start);
+            }
+        }
 
-                ResultSet resultSet = preparedStatement.executeQuery();
+        // Inserts the person, or updates the row that already has the same email.
+        // Returns the id of the inserted or updated row, which is also set on the person.
+        public int upsertUser(Person person) {
+            long start = System.nanoTime();
+            try {
+                ensureSchema();
+                return write(UPSERT_SQL, person);
+            } finally {
+                UPSERT_TIMER.recordSince(start);
+            }
+        }
 
-                while (resultSet.next()) {
-                    int id = resultSet.getInt("id");
-                    String first_name = resultSet.getString("first_name");
-                    String last_name = resultSet.getString("last_name");
-                    String department = resultSet.getString("department");
-                    String major = resultSet.getString("major");
-                    String email = resultSet.getString("email");
+        // Upserts a whole batch in one transaction and sets the resulting ids on the persons.
+        // Rewritten batches don't report per-row keys for updated rows, so the ids are
+        // resolved afterwards with a single email IN (...) lookup per batch.
+        public void upsertBatch(List<Person> batch) {
+            long start = System.nanoTime();
+            try {
+                if (batch.isEmpty()) {
+                    return;
+                }
+                ensureSchema();
+                resolveLookups(batch);
+                try (PooledConnection conn = pool.borrow()) {
+                    Connection connection = conn.getConnection();
+                    connection.setAutoCommit(false);
+                    try {
+                        PreparedStatement preparedStatement = conn.prepare(UPSERT_SQL);
+                        for (Person p : batch) {
+                            bindPerson(preparedStatement, p);
+                            preparedStatement.addBatch();
+                        }
+                        preparedStatement.executeBatch();
+                        resolveIds(connection, batch);
+                        connection.commit();
+                        ROWS_WRITTEN.add(batch.size());
+                        batch.forEach(cache::put);
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            } finally {
+                UPSERT_BATCH_TIMER.recordSince(start);
+            }
+        }
 
-                    lg.makeLog("ID: " + id + ", Name: " + first_name + " " + last_name + " "
-                            + ", Department: " + department + ", Major: " + major + ", Email: " + email);
+        private static void resolveIds(Connection connection, List<Person> batch) throws SQLException {
+            Map<String, Person> byEmail = new HashMap<>();
+            for (Person p : batch) {
+                byEmail.put(p.getEmail().toLowerCase(), p);
+            }
+            StringBuilder sql = new StringBuilder("SELECT id, email FROM users WHERE email IN (");
+            for (int i = 0; i < byEmail.size(); i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(')');
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (String email : byEmail.keySet()) {
+                    preparedStatement.setString(index++, email);
                 }
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        Person p = byEmail.get(resultSet.getString("email").toLowerCase());
+                        if (p != null) {
+                            p.setId(resultSet.getInt("id"));
+                        }
+                    }
+                }
+            }
+            // A file that repeats an email maps both rows to the same id.
+            for (Person p : batch) {
+                p.setId(byEmail.get(p.getEmail().toLowerCase()).getId());
+            }
+        }
 
-                preparedStatement.close();
-                conn.close();
+        private int write(String sql, Person person) {
+            resolveLookups(List.of(person));
+            try (PooledConnection conn = pool.borrow()) {
+                PreparedStatement preparedStatement = conn.prepare(sql, Statement.RETURN_GENERATED_KEYS);
+                bindPerson(preparedStatement, person);
+                preparedStatement.executeUpdate();
+                try (ResultSet keys = preparedStatement.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        person.setId(keys.getInt(1));
+                        ROWS_WRITTEN.increment();
+                        cache.put(person);
+                        return person.getId();
+                    }
+                }
             } catch (SQLException e) {
-                e.printStackTrace();
+                throw new RuntimeException(e);
             }
+            // Nothing changed on an upsert of an identical row, so no key was reported.
+            int id = retrieveId(person);
+            person.setId(id);
+            cache.put(person);
+            return id;
         }
 
-        public void insertUser(Person person) {
-            connectToDatabase();
+        // Binds the six user columns in INSERT_SQL/UPDATE order, starting at parameter 1.
+        // Department and major go in as their lookup ids, so resolveLookups must have run.
+        private static void bindPerson(PreparedStatement preparedStatement, Person p) throws SQLException {
+            preparedStatement.setString(1, p.getFirstName());
+            preparedStatement.setString(2, p.getLastName());
+            bindLookup(preparedStatement, 3, departments.idOf(p.getDepartment()));
+            bindLookup(preparedStatement, 4, majors.idOf(p.getMajor()));
+            preparedStatement.setString(5, p.getEmail());
+            preparedStatement.setString(6, p.getImageURL());
+        }
+
+        private static void bindLookup(PreparedStatement preparedStatement, int index, Integer id) throws SQLException {
+            if (id == null) {
+                preparedStatement.setNull(index, Types.SMALLINT);
+            } else {
+                preparedStatement.setInt(index, id);
+            }
+        }
+
+        // Adds any department or major the persons use that has no lookup row yet. Call
+        // before borrowing the connection for the write.
+        private static void resolveLookups(Collection<Person> persons) {
+            List<String> departmentNames = new ArrayList<>(persons.size());
+            List<String> majorNames = new ArrayList<>(persons.size());
+            for (Person p : persons) {
+                departmentNames.add(p.getDepartment());
+                majorNames.add(p.getMajor());
+            }
             try {
-                Connection conn = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
-                String sql = "INSERT INTO users (first_name, last_name, department, major, email, imageURL) VALUES (?, ?, ?, ?, ?, ?)";
-                PreparedStatement preparedStatement = conn.prepareStatement(sql);
-                preparedStatement.setString(1, person.getFirstName());
-                preparedStatement.setString(2, person.getLastName());
-                preparedStatement.setString(3, person.getDepartment());
-                preparedStatement.setString(4, person.getMajor());
-                preparedStatement.setString(5, person.getEmail());
-                preparedStatement.setString(6, person.getImageURL());
-                int row = preparedStatement.executeUpdate();
-                if (row > 0) {
-                    lg.makeLog("A new user was inserted successfully.");
-                }
-                preparedStatement.close();
-                conn.close();
+                departments.resolve(departmentNames);
+                majors.resolve(majorNames);
             } catch (SQLException e) {
-                e.printStackTrace();
+                throw new RuntimeException(e);
             }
         }
 
+        final static String UPDATE_SQL = "UPDATE users SET first_name=?, last_name=?, department_id=?, major_id=?, email=?, imageURL=? WHERE id=?";
+
         public void editUser(int id, Person p) {
-            connectToDatabase();
+            long start = System.nanoTime();
             try {
-                Connection conn = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
-                String sql = "UPDATE users SET first_name=?, last_name=?, department=?, major=?, email=?, imageURL=? WHERE id=?";
-                PreparedStatement preparedStatement = conn.prepareStatement(sql);
-                preparedStatement.setString(1, p.getFirstName());
-                preparedStatement.setString(2, p.getLastName());
-                preparedStatement.setString(3, p.getDepartment());
-                preparedStatement.setString(4, p.getMajor());
-                preparedStatement.setString(5, p.getEmail());
-                preparedStatement.setString(6, p.getImageURL());
-                preparedStatement.setInt(7, id);
-                preparedStatement.executeUpdate();
-                preparedStatement.close();
-                conn.close();
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+                ensureSchema();
+                resolveLookups(List.of(p));
+                try (PooledConnection conn = pool.borrow()) {
+                    PreparedStatement preparedStatement = conn.prepare(UPDATE_SQL);
+                    bindPerson(preparedStatement, p);
+                    preparedStatement.setInt(7, id);
+                    ROWS_WRITTEN.add(preparedStatement.executeUpdate());
+                } catch (SQLException e) {
+                    // The row may or may not have changed; make the next lookup go to the database.
+                    cache.remove(id);
+                    throw new RuntimeException(e);
+                }
+                cache.put(new Person(id, p.getFirstName(), p.getLastName(), p.getDepartment(),
+                        p.getMajor(), p.getEmail(), p.getImageURL()));
+            } finally {
+                EDIT_TIMER.recordSince(start);
             }
         }
 
+        // Writes a unit of work in one transaction: the inserts as one batch (their generated
+        // ids are set on the persons) and the updates, matched by id, as another.
+        public void applyBatch(List<Person> inserts, List<Person> updates) {
+            long start = System.nanoTime();
+            try {
+                if (inserts.isEmpty() && updates.isEmpty()) {
+                    return;
+                }
+                ensureSchema();
+                resolveLookups(inserts);
+                resolveLookups(updates);
+                try (PooledConnection conn = pool.borrow()) {
+                    Connection connection = conn.getConnection();
+                    connection.setAutoCommit(false);
+                    try {
+                        if (!inserts.isEmpty()) {
+                            PreparedStatement preparedStatement = conn.prepare(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                            for (Person p : inserts) {
+                                bindPerson(preparedStatement, p);
+                                preparedStatement.addBatch();
+                            }
+                            preparedStatement.executeBatch();
+                            // Keys come back in batch order, also when the driver rewrites it into one INSERT.
+                            try (ResultSet keys = preparedStatement.getGeneratedKeys()) {
+                                for (Person p : inserts) {
+                                    if (!keys.next()) {
+                                        throw new SQLException("Missing generated key for " + p.getEmail());
+                                    }
+                                    p.setId(keys.getInt(1));
+                                }
+                            }
+                        }
+                        if (!updates.isEmpty()) {
+                            PreparedStatement preparedStatement = conn.prepare(UPDATE_SQL);
+                            for (Person p : updates) {
+                                bindPerson(preparedStatement, p);
+                                preparedStatement.setInt(7, p.getId());
+                                preparedStatement.addBatch();
+                            }
+                            preparedStatement.executeBatch();
+                        }
+                        connection.commit();
+                        ROWS_WRITTEN.add(inserts.size() + updates.size());
+                        inserts.forEach(cache::put);
+                        updates.forEach(cache::put);
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        for (Person p : inserts) {
+                            p.setId(null);
+                        }
+                        throw e;
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            } finally {
+                APPLY_BATCH_TIMER.recordSince(start);
+            }
+        }
+
+        final static String TOMBSTONE_SQL = "INSERT INTO users_tombstones (id) VALUES (?)"
+                + " ON DUPLICATE KEY UPDATE deleted_at=CURRENT_TIMESTAMP(3)";
+
         public void deleteRecord(Person person) {
-            int id = person.getId();
-            connectToDatabase();
+            long start = System.nanoTime();
             try {
-                Connection conn = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
+                int id = person.getId();
+                ensureSchema();
                 String sql = "DELETE FROM users WHERE id=?";
-                PreparedStatement preparedStatement = conn.prepareStatement(sql);
-                preparedStatement.setInt(1, id);
-                preparedStatement.executeUpdate();
-                preparedStatement.close();
-                conn.close();
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+                try (PooledConnection conn = pool.borrow()) {
+                    Connection connection = conn.getConnection();
+                    connection.setAutoCommit(false);
+                    try {
+                        PreparedStatement preparedStatement = conn.prepare(sql);
+                        preparedStatement.setInt(1, id);
+                        ROWS_WRITTEN.add(preparedStatement.executeUpdate());
+                        // Leave a tombstone so other clients' delta refresh sees the delete.
+                        preparedStatement = conn.prepare(TOMBSTONE_SQL);
+                        preparedStatement.setInt(1, id);
+                        preparedStatement.executeUpdate();
+                        connection.commit();
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    cache.remove(id);
+                }
+            } finally {
+                DELETE_TIMER.recordSince(start);
             }
         }
 
-        //Method to retrieve id from database where it is auto-incremented.
-        public int retrieveId(Person p) {
-            connectToDatabase();
-            int id;
+        // Ids per DELETE ... IN (...) statement in deleteRecords.
+        static final int DELETE_CHUNK_SIZE = 500;
+
+        // Deletes all the given users in one transaction, DELETE_CHUNK_SIZE ids per
+        // statement, with their tombstones; returns how many rows were deleted.
+        public int deleteRecords(List<Integer> ids) {
+            long start = System.nanoTime();
             try {
-                Connection conn = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
-                String sql = "SELECT id FROM users WHERE email=?";
-                PreparedStatement preparedStatement = conn.prepareStatement(sql);
-                preparedStatement.setString(1, p.getEmail());
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                ensureSchema();
+                int deleted = 0;
+                try (PooledConnection conn = pool.borrow()) {
+                    Connection connection = conn.getConnection();
+                    connection.setAutoCommit(false);
+                    try {
+                        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+                            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + DELETE_CHUNK_SIZE));
+                            deleted += deleteChunk(conn, chunk);
+                        }
+                        connection.commit();
+                        ROWS_WRITTEN.add(deleted);
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    ids.forEach(cache::remove);
+                }
+                lg.info("Deleted users", MyLogger.kv("requested", ids.size()), MyLogger.kv("deleted", deleted));
+                return deleted;
+            } finally {
+                DELETE_BATCH_TIMER.recordSince(start);
+            }
+        }
 
-                ResultSet resultSet = preparedStatement.executeQuery();
-                resultSet.next();
-                id = resultSet.getInt("id");
-                preparedStatement.close();
-                conn.close();
+        private static int deleteChunk(PooledConnection conn, List<Integer> ids) throws SQLException {
+            String placeholders = "?" + ",?".repeat(ids.size() - 1);
+            String deleteSql = "DELETE FROM users WHERE id IN (" + placeholders + ")";
+            String tombstoneSql = "INSERT INTO users_tombstones (id) VALUES (?)" + ",(?)".repeat(ids.size() - 1)
+                    + " ON DUPLICATE KEY UPDATE deleted_at=CURRENT_TIMESTAMP(3)";
+            // Full chunks reuse the connection's cached statements; the odd-sized last one doesn't pollute the cache.
+            if (ids.size() == DELETE_CHUNK_SIZE) {
+                bindIds(conn.prepare(tombstoneSql), ids).executeUpdate();
+                return bindIds(conn.prepare(deleteSql), ids).executeUpdate();
+            }
+            Connection connection = conn.getConnection();
+            try (PreparedStatement tombstones = connection.prepareStatement(tombstoneSql);
+                 PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+                bindIds(tombstones, ids).executeUpdate();
+                return bindIds(delete, ids).executeUpdate();
+            }
+        }
 
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+        private static PreparedStatement bindIds(PreparedStatement preparedStatement, List<Integer> ids) throws SQLException {
+            for (int i = 0; i < ids.size(); i++) {
+                preparedStatement.setInt(i + 1, ids.get(i));
             }
-            lg.makeLog(String.valueOf(id));
-            return id;
+            return preparedStatement;
+        }
+
+        //Method to retrieve id from database where it is auto-incremented.
+        public int retrieveId(Person p) {
+            Person found = findByEmail(p.getEmail());
+            if (found == null) {
+                throw new RuntimeException("No user with email " + p.getEmail());
+            }
+            lg.debug("Retrieved id {}", found.getId());
+            return found.getId();
         }
     }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package dao;
+
+import dao.ConnectionPool.PooledConnection;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// In-memory copy of a small id/name lookup table (departments, majors). Loaded once
+// at startup, after which name(id) is an array read and idOf(name) a hash lookup,
+// so users are read and written by their integer keys without joins. Names match
+// ignoring case, like the table's UNIQUE index. A miss reloads the table, which
+// picks up names another client has added since.
+//
+// Readers never lock: every change publishes new arrays and maps.
+public class LookupTable {
+
+    // No row has id 0 (AUTO_INCREMENT starts at 1), so it matches nothing.
+    public static final int NO_ID = 0;
+
+    private final String table;
+    private final ConnectionPool pool;
+    private volatile String[] names = new String[0];
+    private volatile Map<String, Integer> ids = new HashMap<>();
+    // Names found only through the index's trailing-space matching (see resolve); a
+    // reload must keep them, or idOf would fail for a name resolve() just vouched for.
+    private final Map<String, Integer> aliases = new HashMap<>();
+
+    LookupTable(String table, ConnectionPool pool) {
+        this.table = table;
+        this.pool = pool;
+    }
+
+    // The name with this id; null for NO_ID (a NULL column) or an id that doesn't exist.
+    public String name(int id) {
+        if (id == NO_ID) {
+            return null;
+        }
+        String name = lookup(names, id);
+        if (name == null) {
+            reload();
+            name = lookup(names, id);
+        }
+        return name;
+    }
+
+    // The id of name, or NO_ID if the table has no such name.
+    public int find(String name) {
+        Integer id = ids.get(key(name));
+        if (id == null) {
+            reload();
+            id = ids.get(key(name));
+        }
+        return id == null ? NO_ID : id;
+    }
+
+    // The id of an already known name; null for a null name. Call resolve first.
+    Integer idOf(String name) {
+        if (name == null) {
+            return null;
+        }
+        Integer id = ids.get(key(name));
+        if (id == null) {
+            throw new IllegalStateException("No " + table + " id resolved for: " + name);
+        }
+        return id;
+    }
+
+    // Makes sure every non-null name has a row, adding the new ones. Runs on its own
+    // connection before a write starts, so a rolled-back write keeps the ids valid.
+    synchronized void resolve(Collection<String> candidates) throws SQLException {
+        Map<String, String> missing = new HashMap<>();
+        for (String name : candidates) {
+            if (name != null && !ids.containsKey(key(name))) {
+                missing.putIfAbsent(key(name), name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        try (PooledConnection conn = pool.borrow()) {
+            PreparedStatement insert = conn.prepare("INSERT IGNORE INTO " + table + " (name) VALUES (?)");
+            for (String name : missing.values()) {
+                insert.setString(1, name);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        reload();
+        // The index also treats names differing only in trailing spaces as equal, so an
+        // ignored insert can leave a name that maps to an existing row under another spelling.
+        boolean found = false;
+        for (Map.Entry<String, String> entry : missing.entrySet()) {
+            if (!ids.containsKey(entry.getKey())) {
+                try (PooledConnection conn = pool.borrow()) {
+                    PreparedStatement select = conn.prepare("SELECT id FROM " + table + " WHERE name = ?");
+                    select.setString(1, entry.getValue());
+                    try (ResultSet resultSet = select.executeQuery()) {
+                        if (resultSet.next()) {
+                            aliases.put(entry.getKey(), resultSet.getInt(1));
+                            found = true;
+                        }
+                    }
+                }
+            }
+        }
+        if (found) {
+            Map<String, Integer> withAliases = new HashMap<>(ids);
+            aliases.forEach(withAliases::putIfAbsent);
+            ids = withAliases;
+        }
+    }
+
+    // Re-reads the whole table.
+    public synchronized void reload() {
+        try (PooledConnection conn = pool.borrow();
+             ResultSet resultSet = conn.prepare("SELECT id, name FROM " + table).executeQuery()) {
+            String[] loadedNames = new String[16];
+            Map<String, Integer> loadedIds = new HashMap<>();
+            while (resultSet.next()) {
+                int id = resultSet.getInt(1);
+                String name = resultSet.getString(2);
+                if (id >= loadedNames.length) {
+                    loadedNames = Arrays.copyOf(loadedNames, Math.max(id + 1, loadedNames.length * 2));
+                }
+                loadedNames[id] = name;
+                loadedIds.put(key(name), id);
+            }
+            aliases.forEach(loadedIds::putIfAbsent);
+            ids = loadedIds;
+            names = loadedNames;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private static String lookup(String[] names, int id) {
+        return id > 0 && id < names.length ? names[id] : null;
+    }
+
+    private static String key(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,123 @@
+package dao;
+
+import model.Person;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Size-bounded, least-recently-used cache of users indexed by id, with a
+// secondary index by email (case-insensitive, like the column's collation).
+// DbConnectivityClass writes through it on every insert, edit and delete so it
+// stays coherent with what this client has written. Entries are stored and
+// handed out as copies, so callers mutating their Person objects can't corrupt it.
+public class PersonCache {
+
+    public record Stats(long hits, long misses, long evictions, int size, int maxSize) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PersonCache{size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d}",
+                    size, maxSize, hits, misses, hitRate() * 100, evictions);
+        }
+    }
+
+    private final int maxSize;
+    private final Map<Integer, Person> byId;
+    private final Map<String, Integer> idByEmail = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public PersonCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.byId = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Person> eldest) {
+                if (size() > PersonCache.this.maxSize) {
+                    unindexEmail(eldest.getValue());
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Person getById(int id) {
+        Person p = byId.get(id);
+        if (p == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy(p);
+    }
+
+    public synchronized Person getByEmail(String email) {
+        Integer id = email == null ? null : idByEmail.get(email.toLowerCase(Locale.ROOT));
+        Person p = id == null ? null : byId.get(id);
+        if (p == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy(p);
+    }
+
+    // Adds or replaces the entry for p's id. Persons without an id are ignored.
+    public synchronized void put(Person p) {
+        if (p.getId() == null) {
+            return;
+        }
+        Person previous = byId.remove(p.getId());
+        if (previous != null) {
+            unindexEmail(previous);
+        }
+        if (p.getEmail() != null) {
+            // Another id holding this email must be stale (email is UNIQUE), so drop it.
+            Integer other = idByEmail.remove(p.getEmail().toLowerCase(Locale.ROOT));
+            if (other != null) {
+                byId.remove(other);
+            }
+            idByEmail.put(p.getEmail().toLowerCase(Locale.ROOT), p.getId());
+        }
+        byId.put(p.getId(), copy(p));
+    }
+
+    public synchronized void remove(int id) {
+        Person previous = byId.remove(id);
+        if (previous != null) {
+            unindexEmail(previous);
+        }
+    }
+
+    public synchronized void clear() {
+        byId.clear();
+        idByEmail.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, byId.size(), maxSize);
+    }
+
+    // Rows without an email aren't in idByEmail; they must not share one "" key.
+    private void unindexEmail(Person p) {
+        if (p.getEmail() != null) {
+            idByEmail.remove(p.getEmail().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static Person copy(Person p) {
+        return new Person(p.getId(), p.getFirstName(), p.getLastName(), p.getDepartment(),
+                p.getMajor(), p.getEmail(), p.getImageURL());
+    }
+}
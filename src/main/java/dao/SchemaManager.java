@@ -0,0 +1,196 @@
+package dao;
+
+import dao.ConnectionPool.PooledConnection;
+import service.MyLogger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+// Brings the database schema up to date once at startup. Every change to the
+// schema is an ordered migration; the versions already applied are recorded in
+// the schema_version table so each one runs exactly once per database.
+public class SchemaManager {
+
+    private static final String LOCK_NAME = "csc311_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    // One statement of a migration. If skipIf is set and its query returns a true first
+    // column, the statement's change is already there and it is skipped, so a migration
+    // that failed halfway (DDL commits as it goes) can simply be run again.
+    record Step(String sql, String skipIf) {
+    }
+
+    record Migration(int version, String description, List<Step> steps) {
+
+        Migration(int version, String description, String... statements) {
+            this(version, description, Arrays.stream(statements).map(sql -> new Step(sql, null)).toList());
+        }
+
+        Migration(int version, String description, Step... steps) {
+            this(version, description, List.of(steps));
+        }
+    }
+
+    // Append new migrations to the end of this list; never edit one that has shipped.
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create users table",
+                    "CREATE TABLE IF NOT EXISTS users ("
+                            + "id INT( 10 ) NOT NULL PRIMARY KEY AUTO_INCREMENT,"
+                            + "first_name VARCHAR(200) NOT NULL,"
+                            + "last_name VARCHAR(200) NOT NULL,"
+                            + "department VARCHAR(200),"
+                            + "major VARCHAR(200),"
+                            + "email VARCHAR(200) NOT NULL UNIQUE,"
+                            + "imageURL VARCHAR(200))"),
+            new Migration(2, "Index users for filtered and sorted queries",
+                    new Step("CREATE INDEX idx_users_last_name ON users (last_name)",
+                            hasIndex("users", "idx_users_last_name")),
+                    new Step("CREATE INDEX idx_users_major ON users (major)",
+                            hasIndex("users", "idx_users_major")),
+                    new Step("CREATE INDEX idx_users_department ON users (department)",
+                            hasIndex("users", "idx_users_department"))),
+            new Migration(3, "Track row changes and deletions for delta refresh",
+                    new Step("ALTER TABLE users ADD COLUMN updated_at TIMESTAMP(3) NOT NULL"
+                            + " DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)",
+                            hasColumn("users", "updated_at")),
+                    new Step("CREATE INDEX idx_users_updated_at ON users (updated_at)",
+                            hasIndex("users", "idx_users_updated_at")),
+                    new Step("CREATE TABLE IF NOT EXISTS users_tombstones ("
+                            + "id INT NOT NULL PRIMARY KEY,"
+                            + "deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),"
+                            + "INDEX idx_users_tombstones_deleted_at (deleted_at))", null)),
+            // Setting updated_at to itself keeps the backfill from marking every row as changed.
+            // Each ALTER is atomic; the copies from the old columns are skipped once they are gone.
+            new Migration(4, "Move departments and majors into lookup tables",
+                    new Step("CREATE TABLE IF NOT EXISTS departments ("
+                            + "id SMALLINT UNSIGNED NOT NULL PRIMARY KEY AUTO_INCREMENT,"
+                            + "name VARCHAR(200) NOT NULL UNIQUE)", null),
+                    new Step("CREATE TABLE IF NOT EXISTS majors ("
+                            + "id SMALLINT UNSIGNED NOT NULL PRIMARY KEY AUTO_INCREMENT,"
+                            + "name VARCHAR(200) NOT NULL UNIQUE)", null),
+                    new Step("INSERT IGNORE INTO departments (name) SELECT DISTINCT department FROM users WHERE department IS NOT NULL",
+                            lacksColumn("users", "department")),
+                    new Step("INSERT IGNORE INTO majors (name) SELECT DISTINCT major FROM users WHERE major IS NOT NULL",
+                            lacksColumn("users", "major")),
+                    new Step("ALTER TABLE users ADD COLUMN department_id SMALLINT UNSIGNED NULL AFTER last_name,"
+                            + " ADD COLUMN major_id SMALLINT UNSIGNED NULL AFTER department_id",
+                            hasColumn("users", "department_id")),
+                    new Step("UPDATE users JOIN departments ON departments.name = users.department"
+                            + " SET users.department_id = departments.id, users.updated_at = users.updated_at",
+                            lacksColumn("users", "department")),
+                    new Step("UPDATE users JOIN majors ON majors.name = users.major"
+                            + " SET users.major_id = majors.id, users.updated_at = users.updated_at",
+                            lacksColumn("users", "major")),
+                    new Step("ALTER TABLE users ADD INDEX idx_users_department_id (department_id),"
+                            + " ADD INDEX idx_users_major_id (major_id),"
+                            + " ADD CONSTRAINT fk_users_department FOREIGN KEY (department_id) REFERENCES departments (id),"
+                            + " ADD CONSTRAINT fk_users_major FOREIGN KEY (major_id) REFERENCES majors (id)",
+                            hasIndex("users", "idx_users_department_id")),
+                    new Step("ALTER TABLE users DROP INDEX idx_users_department, DROP INDEX idx_users_major,"
+                            + " DROP COLUMN department, DROP COLUMN major",
+                            lacksColumn("users", "department")))
+    );
+
+    private final ConnectionPool pool;
+
+    public SchemaManager(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    // The pool connects straight to the database, so it has to exist before anything is borrowed.
+    public static void createDatabase(String serverUrl, String dbName, String username, String password) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(serverUrl, username, password);
+             Statement statement = conn.createStatement()) {
+            statement.executeUpdate("CREATE DATABASE IF NOT EXISTS " + dbName);
+        }
+    }
+
+    // Applies every pending migration and returns the resulting schema version.
+    public int migrate() throws SQLException {
+        try (PooledConnection pc = pool.borrow();
+             Statement statement = pc.getConnection().createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT NOT NULL PRIMARY KEY,"
+                    + "description VARCHAR(200) NOT NULL,"
+                    + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+
+            // Serialize migrations between several clients starting at the same time.
+            acquireLock(statement);
+            try {
+                int current = currentVersion(statement);
+                for (Migration migration : MIGRATIONS) {
+                    if (migration.version() > current) {
+                        apply(pc, statement, migration);
+                        current = migration.version();
+                    }
+                }
+                return current;
+            } finally {
+                statement.execute("DO RELEASE_LOCK('" + LOCK_NAME + "')");
+            }
+        }
+    }
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    private void apply(PooledConnection pc, Statement statement, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        for (Step step : migration.steps()) {
+            if (step.skipIf() != null && isTrue(statement, step.skipIf())) {
+                MyLogger.get("dao").info("Skipping a step of schema migration {} that was already applied", migration.version());
+                continue;
+            }
+            statement.executeUpdate(step.sql());
+        }
+        PreparedStatement record = pc.prepare("INSERT INTO schema_version (version, description) VALUES (?, ?)");
+        record.setInt(1, migration.version());
+        record.setString(2, migration.description());
+        record.executeUpdate();
+        MyLogger.get("dao").info("Applied schema migration {} ({})", migration.version(), migration.description(),
+                MyLogger.kv("ms", System.currentTimeMillis() - start));
+    }
+
+    private static boolean isTrue(Statement statement, String query) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(query)) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    private static String hasColumn(String table, String column) {
+        return "SELECT COUNT(*) > 0 FROM information_schema.columns WHERE table_schema = DATABASE()"
+                + " AND table_name = '" + table + "' AND column_name = '" + column + "'";
+    }
+
+    private static String lacksColumn(String table, String column) {
+        return "SELECT COUNT(*) = 0 FROM information_schema.columns WHERE table_schema = DATABASE()"
+                + " AND table_name = '" + table + "' AND column_name = '" + column + "'";
+    }
+
+    private static String hasIndex(String table, String index) {
+        return "SELECT COUNT(*) > 0 FROM information_schema.statistics WHERE table_schema = DATABASE()"
+                + " AND table_name = '" + table + "' AND index_name = '" + index + "'";
+    }
+
+    private static int currentVersion(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private static void acquireLock(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(
+                "SELECT GET_LOCK('" + LOCK_NAME + "', " + LOCK_TIMEOUT_SECONDS + ")")) {
+            if (!resultSet.next() || resultSet.getInt(1) != 1) {
+                throw new SQLException("Timed out waiting for the schema migration lock");
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package dao;
+
+import model.Person;
+import service.MyLogger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Pending user writes for write-behind editing. Adds and edits are staged here and
+// only reach the database when the unit of work is drained and its Batch applied,
+// which DbConnectivityClass.applyBatch does in one transaction. Repeated edits of a
+// row are coalesced into its latest version, and editing a row that was added since
+// the last drain just replaces the staged insert.
+//
+// Staged persons are the objects shown in the table; a Batch pairs each of them with
+// the copy that was written, which has the database id once applied. At most one
+// batch is written asynchronously at a time (see writing); commit() waits for it.
+// Not thread-safe: stage, drain and commit from the JavaFX thread.
+public class UnitOfWork {
+
+    public record Batch(List<Person> staged, List<Person> rows, int insertCount) {
+
+        public List<Person> inserts() {
+            return rows.subList(0, insertCount);
+        }
+
+        public List<Person> updates() {
+            return rows.subList(insertCount, rows.size());
+        }
+
+        public boolean isEmpty() {
+            return rows.isEmpty();
+        }
+
+        public int size() {
+            return rows.size();
+        }
+    }
+
+    // Units of work with changes that must not be lost when the application exits.
+    // Joined on the first staged change rather than in the constructor, so a
+    // half-constructed instance is never visible to commitAllOnExit.
+    private static final Set<UnitOfWork> open = ConcurrentHashMap.newKeySet();
+
+    private final DbConnectivityClass cnUtil;
+    private final List<Person> inserts = new ArrayList<>();
+    private final Map<Integer, Person> updates = new LinkedHashMap<>();
+    // The batch being written asynchronously, and its write; null when none is.
+    private Batch writingBatch;
+    private CompletableFuture<?> writing;
+
+    public UnitOfWork(DbConnectivityClass cnUtil) {
+        this.cnUtil = cnUtil;
+    }
+
+    public void stageInsert(Person p) {
+        open.add(this);
+        inserts.add(p);
+    }
+
+    // Stages updated (carrying previous's id) in place of previous.
+    public void stageUpdate(Person previous, Person updated) {
+        open.add(this);
+        int index = indexOf(inserts, previous);
+        if (index >= 0) {
+            inserts.set(index, updated);
+        } else if (updated.getId() == null) {
+            throw new IllegalStateException("Can't edit a new record while it is being saved");
+        } else {
+            updates.put(updated.getId(), updated);
+        }
+    }
+
+    // Forgets any staged change of p, e.g. because it is about to be deleted.
+    public void discard(Person p) {
+        int index = indexOf(inserts, p);
+        if (index >= 0) {
+            inserts.remove(index);
+        } else if (p.getId() != null) {
+            updates.remove(p.getId());
+        }
+    }
+
+    public boolean isPending(Person p) {
+        return p.getId() == null ? indexOf(inserts, p) >= 0 : updates.get(p.getId()) == p;
+    }
+
+    // Whether a staged row other than except uses email (ignoring case).
+    public boolean hasPendingEmail(String email, Person except) {
+        for (Person p : inserts) {
+            if (p != except && email.equalsIgnoreCase(p.getEmail())) {
+                return true;
+            }
+        }
+        for (Person p : updates.values()) {
+            if (p != except && email.equalsIgnoreCase(p.getEmail())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return inserts.size() + updates.size();
+    }
+
+    // Takes everything staged so far, leaving the unit of work empty.
+    public Batch drain() {
+        List<Person> staged = new ArrayList<>(size());
+        staged.addAll(inserts);
+        staged.addAll(updates.values());
+        List<Person> rows = new ArrayList<>(staged.size());
+        for (Person p : staged) {
+            rows.add(new Person(p.getId(), p.getFirstName(), p.getLastName(), p.getDepartment(),
+                    p.getMajor(), p.getEmail(), p.getImageURL()));
+        }
+        Batch batch = new Batch(staged, rows, inserts.size());
+        inserts.clear();
+        updates.clear();
+        return batch;
+    }
+
+    // Records that batch (just drained) is being written by write, until settle(write).
+    public void writing(Batch batch, CompletableFuture<?> write) {
+        if (writing != null) {
+            throw new IllegalStateException("A batch is already being written");
+        }
+        writingBatch = batch;
+        writing = write;
+    }
+
+    public boolean isWriting() {
+        return writing != null;
+    }
+
+    // Call once write has completed; a failed write's batch is staged again. False if
+    // commit() already took care of it.
+    public boolean settle(CompletableFuture<?> write, Throwable error) {
+        if (writing != write) {
+            return false;
+        }
+        if (error != null) {
+            restage(writingBatch);
+        }
+        writingBatch = null;
+        writing = null;
+        return true;
+    }
+
+    // Waits for the batch in flight, then writes everything still staged on this thread.
+    // Whatever could not be written is staged again, and the failure rethrown.
+    public void commit() {
+        CompletableFuture<?> write = writing;
+        if (write != null) {
+            Throwable error = null;
+            try {
+                write.join();
+            } catch (CompletionException | CancellationException e) {
+                error = e;
+            }
+            settle(write, error);
+        }
+        Batch batch = drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            cnUtil.applyBatch(batch.inserts(), batch.updates());
+        } catch (RuntimeException e) {
+            restage(batch);
+            throw e;
+        }
+    }
+
+    // Puts a batch that was not written back in front of the changes staged since.
+    private void restage(Batch batch) {
+        List<Person> staged = batch.staged();
+        inserts.addAll(0, staged.subList(0, batch.insertCount()));
+        Map<Integer, Person> newer = new LinkedHashMap<>(updates);
+        updates.clear();
+        for (Person p : staged.subList(batch.insertCount(), staged.size())) {
+            updates.put(p.getId(), p);
+        }
+        updates.putAll(newer);
+    }
+
+    // Stops tracking this unit of work for the exit flush; stage nothing afterwards.
+    public void close() {
+        open.remove(this);
+    }
+
+    // Commits every open unit of work, waiting for writes still in flight; false if any
+    // changes could not be saved. Call from Application.stop(), on the JavaFX thread.
+    public static boolean commitAllOnExit() {
+        boolean saved = true;
+        for (UnitOfWork unit : open) {
+            try {
+                unit.commit();
+            } catch (RuntimeException e) {
+                MyLogger.get("dao").error("Could not save {} pending changes on exit: {}", unit.size(), e.getMessage(), e);
+                saved = false;
+            }
+        }
+        return saved;
+    }
+
+    // By identity: staged rows are specific table rows, and Person has no equals.
+    private static int indexOf(List<Person> list, Person p) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == p) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,13 @@
+package dao;
+
+import model.Person;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+// Result of a sync against the users table. When complete is true, changed holds
+// every matching row and replaces whatever the caller had; otherwise it holds only
+// rows inserted or updated since the previous watermark, and deletedIds the rows
+// deleted since then. Pass watermark to the next DbConnectivityClass.fetchChangesSince.
+public record UserChanges(List<Person> changed, List<Integer> deletedIds, Timestamp watermark, boolean complete) {
+}
@@ -0,0 +1,190 @@
+package dao;
+
+import model.Person;
+
+// Filters, sort order and window for DbConnectivityClass.queryUsers. Every
+// filter is optional; unset filters match everything. Setters return this so a
+// query reads as one expression:
+//
+//   new UserQuery().lastNamePrefix("Smi").major("English").sortBy(SortColumn.LAST_NAME, false).limit(100)
+public class UserQuery {
+
+    public enum SortColumn {
+        ID("users.id", ""),
+        FIRST_NAME("first_name", ""),
+        LAST_NAME("last_name", ""),
+        DEPARTMENT("departments.name", " LEFT JOIN departments ON departments.id = users.department_id"),
+        MAJOR("majors.name", " LEFT JOIN majors ON majors.id = users.major_id"),
+        EMAIL("email", "");
+
+        // Only these fixed names are ever spliced into SQL.
+        final String column;
+        // Users store department and major as lookup ids, so sorting by their names needs the lookup table.
+        final String join;
+
+        SortColumn(String column, String join) {
+            this.column = column;
+            this.join = join;
+        }
+    }
+
+    private String lastNamePrefix;
+    private String major;
+    private String department;
+    private String emailDomain;
+    private SortColumn sortColumn = SortColumn.ID;
+    private boolean descending;
+    private int limit;
+    private int offset;
+    private Integer afterId;
+
+    public UserQuery copy() {
+        UserQuery q = new UserQuery();
+        q.lastNamePrefix = lastNamePrefix;
+        q.major = major;
+        q.department = department;
+        q.emailDomain = emailDomain;
+        q.sortColumn = sortColumn;
+        q.descending = descending;
+        q.limit = limit;
+        q.offset = offset;
+        q.afterId = afterId;
+        return q;
+    }
+
+    public UserQuery lastNamePrefix(String lastNamePrefix) {
+        this.lastNamePrefix = blankToNull(lastNamePrefix);
+        return this;
+    }
+
+    public UserQuery major(String major) {
+        this.major = blankToNull(major);
+        return this;
+    }
+
+    public UserQuery department(String department) {
+        this.department = blankToNull(department);
+        return this;
+    }
+
+    // Matches emails ending in "@" + domain; a leading "@" is ignored.
+    public UserQuery emailDomain(String emailDomain) {
+        String domain = blankToNull(emailDomain);
+        this.emailDomain = domain != null && domain.startsWith("@") ? blankToNull(domain.substring(1)) : domain;
+        return this;
+    }
+
+    public UserQuery sortBy(SortColumn sortColumn, boolean descending) {
+        this.sortColumn = sortColumn == null ? SortColumn.ID : sortColumn;
+        this.descending = descending;
+        return this;
+    }
+
+    // 0 means no limit.
+    public UserQuery limit(int limit) {
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    public UserQuery offset(int offset) {
+        this.offset = Math.max(0, offset);
+        return this;
+    }
+
+    // Keyset window: only rows with a larger id. Only valid for ascending id order.
+    public UserQuery afterId(Integer afterId) {
+        this.afterId = afterId;
+        return this;
+    }
+
+    public String getLastNamePrefix() {
+        return lastNamePrefix;
+    }
+
+    public String getMajor() {
+        return major;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public String getEmailDomain() {
+        return emailDomain;
+    }
+
+    public SortColumn getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public Integer getAfterId() {
+        return afterId;
+    }
+
+    public boolean hasFilters() {
+        return lastNamePrefix != null || major != null || department != null || emailDomain != null;
+    }
+
+    // Client-side equivalent of the WHERE clause queryUsers builds (case-insensitive,
+    // like the column collation), used to patch already-loaded rows in place.
+    public boolean matches(Person p) {
+        if (lastNamePrefix != null && (p.getLastName() == null
+                || !p.getLastName().regionMatches(true, 0, lastNamePrefix, 0, lastNamePrefix.length()))) {
+            return false;
+        }
+        if (major != null && !major.equalsIgnoreCase(p.getMajor())) {
+            return false;
+        }
+        if (department != null && !department.equalsIgnoreCase(p.getDepartment())) {
+            return false;
+        }
+        if (emailDomain != null) {
+            String suffix = "@" + emailDomain;
+            String email = p.getEmail();
+            if (email == null || email.length() < suffix.length()
+                    || !email.regionMatches(true, email.length() - suffix.length(), suffix, 0, suffix.length())) {
+                return false;
+            }
+        }
+        return afterId == null || (p.getId() != null && p.getId() > afterId);
+    }
+
+    // True when pages can be walked by keyset (id > last id) instead of by offset.
+    public boolean isKeysetOrder() {
+        return sortColumn == SortColumn.ID && !descending;
+    }
+
+    @Override
+    public String toString() {
+        return "UserQuery{" +
+                "lastNamePrefix='" + lastNamePrefix + '\'' +
+                ", major='" + major + '\'' +
+                ", department='" + department + '\'' +
+                ", emailDomain='" + emailDomain + '\'' +
+                ", sort=" + sortColumn + (descending ? " DESC" : " ASC") +
+                ", limit=" + limit +
+                ", offset=" + offset +
+                ", afterId=" + afterId +
+                '}';
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,175 @@
+package dao;
+
+import model.Person;
+import service.MyLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Local copy of the (unfiltered) users table and the sync watermark it was taken
+// at, so the table can be shown the moment the window opens and then brought up
+// to date with fetchChangesSince instead of a full download. One file per
+// database, under ~/.csc311; a snapshot of another server or database is ignored.
+public final class UserSnapshot {
+
+    public record Snapshot(List<Person> rows, Timestamp watermark) {
+    }
+
+    private static final MyLogger log = MyLogger.get("dao");
+
+    private static final int MAGIC = 0x55534E50; // "USNP"
+    private static final int VERSION = 1;
+    private static final String DATABASE_KEY = DbConnectivityClass.DB_URL + " " + DbConnectivityClass.USERNAME;
+    private static final Path FILE = Paths.get(System.getProperty("user.home"), ".csc311",
+            "users-" + Integer.toHexString(DATABASE_KEY.hashCode()) + ".snapshot");
+
+    // Writes happen off the caller's thread; only the newest pending snapshot is written.
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "snapshot-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final AtomicReference<Snapshot> pending = new AtomicReference<>();
+    private static volatile Supplier<Snapshot> exitSource;
+
+    private UserSnapshot() {
+    }
+
+    // The saved snapshot, or null if there is none for this database, it can't be read or
+    // it has more than maxRows rows (which are then not read at all).
+    public static Snapshot load(int maxRows) {
+        return load(FILE, maxRows);
+    }
+
+    static Snapshot load(Path file, int maxRows) {
+        long start = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(DATABASE_KEY)) {
+                return null;
+            }
+            Timestamp watermark = new Timestamp(in.readLong());
+            int count = in.readInt();
+            if (count > maxRows) {
+                log.info("Ignoring user snapshot with too many rows", MyLogger.kv("rows", count));
+                return null;
+            }
+            List<Person> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(new Person(in.readInt(), readString(in), readString(in), readString(in),
+                        readString(in), readString(in), readString(in)));
+            }
+            log.info("Loaded user snapshot", MyLogger.kv("rows", count),
+                    MyLogger.kv("ms", (System.nanoTime() - start) / 1_000_000));
+            return new Snapshot(rows, watermark);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable user snapshot: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Saves a copy of rows in the background.
+    public static void saveAsync(List<Person> rows, Timestamp watermark) {
+        if (pending.getAndSet(new Snapshot(new ArrayList<>(rows), watermark)) == null) {
+            WRITER.execute(() -> {
+                Snapshot snapshot = pending.getAndSet(null);
+                if (snapshot != null) {
+                    save(snapshot);
+                }
+            });
+        }
+    }
+
+    // Where saveOnExit gets the final state from; the supplier may return null to skip saving.
+    public static void setExitSource(Supplier<Snapshot> source) {
+        exitSource = source;
+    }
+
+    // Saves the exit source's snapshot synchronously. Call from Application.stop(),
+    // i.e. on the JavaFX thread, which the exit source may rely on.
+    public static void saveOnExit() {
+        Supplier<Snapshot> source = exitSource;
+        Snapshot snapshot = source == null ? null : source.get();
+        if (snapshot != null) {
+            pending.set(null);
+            save(snapshot);
+        }
+    }
+
+    // Deletes the saved snapshot, so the next launch loads the table from the database.
+    public static synchronized void discard() {
+        pending.set(null);
+        try {
+            Files.deleteIfExists(FILE);
+        } catch (IOException e) {
+            log.warn("Could not delete user snapshot: {}", e.getMessage());
+        }
+    }
+
+    private static void save(Snapshot snapshot) {
+        save(FILE, snapshot);
+    }
+
+    static synchronized void save(Path file, Snapshot snapshot) {
+        if (snapshot.watermark() == null) {
+            return;
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(DATABASE_KEY);
+                // New rows that are still only staged (see UnitOfWork) have no id yet; the next sync brings them
+                List<Person> rows = new ArrayList<>(snapshot.rows().size());
+                for (Person p : snapshot.rows()) {
+                    if (p.getId() != null) {
+                        rows.add(p);
+                    }
+                }
+                out.writeLong(snapshot.watermark().getTime());
+                out.writeInt(rows.size());
+                for (Person p : rows) {
+                    out.writeInt(p.getId());
+                    writeString(out, p.getFirstName());
+                    writeString(out, p.getLastName());
+                    writeString(out, p.getDepartment());
+                    writeString(out, p.getMajor());
+                    writeString(out, p.getEmail());
+                    writeString(out, p.getImageURL());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not save user snapshot: {}", e.getMessage());
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package metrics;
+
+// JMX view of a Counter.
+public interface CounterMXBean {
+
+    long getCount();
+
+    void reset();
+}
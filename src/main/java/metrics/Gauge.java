@@ -0,0 +1,18 @@
+package metrics;
+
+import java.util.function.LongSupplier;
+
+// A value sampled when it is read, e.g. the number of connections in use.
+public class Gauge implements GaugeMXBean {
+
+    private final LongSupplier value;
+
+    public Gauge(LongSupplier value) {
+        this.value = value;
+    }
+
+    @Override
+    public long getValue() {
+        return value.getAsLong();
+    }
+}
@@ -0,0 +1,7 @@
+package metrics;
+
+// JMX view of a Gauge.
+public interface GaugeMXBean {
+
+    long getValue();
+}
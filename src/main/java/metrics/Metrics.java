@@ -0,0 +1,98 @@
+package metrics;
+
+import service.MyLogger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Process-wide registry of named timers, counters and gauges. Each one is also
+// registered as an MXBean under "csc311:type=<Timer|Counter|Gauge>,name=<name>",
+// so JConsole or VisualVM can watch a running client. Names are dotted by area:
+// dao.* for DAO calls, pool.* for the connection pool, csv.* for import/export
+// and fx.* for UI actions from click to table update.
+//
+// Look metrics up once and keep them in a static field; the lookup itself is a map access.
+public final class Metrics {
+
+    private static final String DOMAIN = "csc311";
+
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> register("Timer", n, new Timer()));
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> register("Counter", n, new Counter()));
+    }
+
+    // Registers a gauge read from value; a second registration under the same name is ignored.
+    public static void gauge(String name, LongSupplier value) {
+        gauges.computeIfAbsent(name, n -> register("Gauge", n, new Gauge(value)));
+    }
+
+    public static Map<String, Timer> getTimers() {
+        return new TreeMap<>(timers);
+    }
+
+    public static Map<String, Counter> getCounters() {
+        return new TreeMap<>(counters);
+    }
+
+    // One line for the status bar: DAO call count, the slowest DAO method by p95,
+    // connection-acquire p95 and rows moved.
+    public static String summary() {
+        long calls = 0;
+        String slowest = null;
+        long slowestP95 = -1;
+        for (Map.Entry<String, Timer> entry : timers.entrySet()) {
+            if (!entry.getKey().startsWith("dao.")) {
+                continue;
+            }
+            Timer timer = entry.getValue();
+            calls += timer.getCount();
+            long p95 = timer.percentileMicros(0.95);
+            if (timer.getCount() > 0 && p95 > slowestP95) {
+                slowest = entry.getKey().substring("dao.".length());
+                slowestP95 = p95;
+            }
+        }
+        StringBuilder sb = new StringBuilder(String.format("DB calls %,d", calls));
+        if (slowest != null) {
+            sb.append(String.format(" | slowest p95 %s %.1f ms", slowest, slowestP95 / 1000.0));
+        }
+        Timer acquire = timers.get("pool.acquire");
+        if (acquire != null && acquire.getCount() > 0) {
+            sb.append(String.format(" | acquire p95 %.1f ms", acquire.getP95Millis()));
+        }
+        sb.append(String.format(" | rows read %,d, written %,d",
+                countOf("dao.rows.read"), countOf("dao.rows.written")));
+        return sb.toString();
+    }
+
+    private static long countOf(String counter) {
+        Counter c = counters.get(counter);
+        return c == null ? 0 : c.getCount();
+    }
+
+    private static <T> T register(String type, String name, T bean) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(bean,
+                    new ObjectName(DOMAIN + ":type=" + type + ",name=" + name));
+        } catch (JMException e) {
+            // Still usable in-process, just not visible over JMX.
+            MyLogger.get("metrics").warn("Could not register metric {} with JMX: {}", name, e.getMessage());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,19 @@
+package metrics;
+
+// JMX view of a Timer. Durations are in milliseconds.
+public interface TimerMXBean {
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    void reset();
+}
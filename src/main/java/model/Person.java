@@ -1,5 +1,14 @@
 package model;
 
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+// A user row. The values live in plain fields until something asks for a
+// property (a table cell, a binding); from then on that property holds the value
+// and the getter and setter go through it, so setters made afterwards show up in
+// the table. Rows that are never displayed never create a property.
 public class Person {
     private Integer id;
     private String firstName;
@@ -9,6 +18,14 @@ public class Person {
     private String email;
     private String imageURL;
 
+    private ObjectProperty<Integer> idProperty;
+    private StringProperty firstNameProperty;
+    private StringProperty lastNameProperty;
+    private StringProperty departmentProperty;
+    private StringProperty majorProperty;
+    private StringProperty emailProperty;
+    private StringProperty imageURLProperty;
+
     public Person() {
     }
 
@@ -32,74 +49,147 @@ public class Person {
     }
 
     public String getEmail() {
-        return email;
+        return emailProperty == null ? email : emailProperty.get();
     }
 
     public void setEmail(String email) {
-        this.email = email;
+        if (emailProperty == null) {
+            this.email = email;
+        } else {
+            emailProperty.set(email);
+        }
+    }
+
+    public StringProperty emailProperty() {
+        if (emailProperty == null) {
+            emailProperty = new SimpleStringProperty(this, "email", email);
+        }
+        return emailProperty;
     }
 
     public Integer getId() {
-        return id;
+        return idProperty == null ? id : idProperty.get();
     }
 
     public void setId(Integer id) {
-        this.id = id;
+        if (idProperty == null) {
+            this.id = id;
+        } else {
+            idProperty.set(id);
+        }
     }
 
+    public ObjectProperty<Integer> idProperty() {
+        if (idProperty == null) {
+            idProperty = new SimpleObjectProperty<>(this, "id", id);
+        }
+        return idProperty;
+    }
 
     public String getFirstName() {
-        return firstName;
+        return firstNameProperty == null ? firstName : firstNameProperty.get();
     }
 
     public void setFirstName(String firstName) {
-        this.firstName = firstName;
+        if (firstNameProperty == null) {
+            this.firstName = firstName;
+        } else {
+            firstNameProperty.set(firstName);
+        }
     }
 
+    public StringProperty firstNameProperty() {
+        if (firstNameProperty == null) {
+            firstNameProperty = new SimpleStringProperty(this, "firstName", firstName);
+        }
+        return firstNameProperty;
+    }
 
     public String getLastName() {
-        return lastName;
+        return lastNameProperty == null ? lastName : lastNameProperty.get();
     }
 
     public void setLastName(String lastName) {
-        this.lastName = lastName;
+        if (lastNameProperty == null) {
+            this.lastName = lastName;
+        } else {
+            lastNameProperty.set(lastName);
+        }
     }
 
+    public StringProperty lastNameProperty() {
+        if (lastNameProperty == null) {
+            lastNameProperty = new SimpleStringProperty(this, "lastName", lastName);
+        }
+        return lastNameProperty;
+    }
 
     public String getMajor() {
-        return major;
+        return majorProperty == null ? major : majorProperty.get();
     }
 
     public void setMajor(String major) {
-        this.major = major;
+        if (majorProperty == null) {
+            this.major = major;
+        } else {
+            majorProperty.set(major);
+        }
     }
 
+    public StringProperty majorProperty() {
+        if (majorProperty == null) {
+            majorProperty = new SimpleStringProperty(this, "major", major);
+        }
+        return majorProperty;
+    }
 
     public String getDepartment() {
-        return department;
+        return departmentProperty == null ? department : departmentProperty.get();
     }
 
     public void setDepartment(String department) {
-        this.department = department;
+        if (departmentProperty == null) {
+            this.department = department;
+        } else {
+            departmentProperty.set(department);
+        }
+    }
+
+    public StringProperty departmentProperty() {
+        if (departmentProperty == null) {
+            departmentProperty = new SimpleStringProperty(this, "department", department);
+        }
+        return departmentProperty;
     }
 
     public String getImageURL() {
-        return imageURL;
+        return imageURLProperty == null ? imageURL : imageURLProperty.get();
     }
 
     public void setImageURL(String imageURL) {
-        this.imageURL = imageURL;
+        if (imageURLProperty == null) {
+            this.imageURL = imageURL;
+        } else {
+            imageURLProperty.set(imageURL);
+        }
+    }
+
+    public StringProperty imageURLProperty() {
+        if (imageURLProperty == null) {
+            imageURLProperty = new SimpleStringProperty(this, "imageURL", imageURL);
+        }
+        return imageURLProperty;
     }
 
     @Override
     public String toString() {
         return "Person{" +
-                "id=" + id +
-                ", firstName='" + firstName + '\'' +
-                ", lastName='" + lastName + '\'' +
-                ", department='" + department + '\'' +
-                ", major='" + major + '\'' +
-                ", email='" + email + '\'' +
+                "id=" + getId() +
+                ", firstName='" + getFirstName() + '\'' +
+                ", lastName='" + getLastName() + '\'' +
+                ", department='" + getDepartment() + '\'' +
+                ", major='" + getMajor() + '\'' +
+                ", email='" + getEmail() + '\'' +
                 '}';
     }
 
@@ -0,0 +1,419 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Column-oriented storage for a large number of users. Instead of a Person (and
+// eight more objects) per row, each column is one array: ids are an int[],
+// department and major are int codes into a dictionary of their few distinct
+// values, and the other strings are UTF-8 bytes packed into one byte[] per column.
+// That is roughly 50 bytes plus the text per row, several times less than Person
+// objects, and only a handful of objects however many rows there are.
+//
+// Rows are addressed by index and read through PersonRow views, which decode on
+// access. Rows can be appended, rewritten and deleted; a rewrite appends the new
+// text and leaves the old bytes as garbage until compact(). Not thread-safe: one
+// writer, and readers only while nobody writes.
+public class PersonColumns {
+
+    public enum Column {
+        ID, FIRST_NAME, LAST_NAME, DEPARTMENT, MAJOR, EMAIL, IMAGE_URL
+    }
+
+    private int size;
+    private int[] ids;
+    private int[] departments;
+    private int[] majors;
+    private final Dictionary departmentValues = new Dictionary();
+    private final Dictionary majorValues = new Dictionary();
+    private final StringColumn firstNames;
+    private final StringColumn lastNames;
+    private final StringColumn emails;
+    private final StringColumn imageURLs;
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private final IdIndex rowsById;
+
+    public PersonColumns(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        ids = new int[capacity];
+        departments = new int[capacity];
+        majors = new int[capacity];
+        firstNames = new StringColumn(capacity, 8);
+        lastNames = new StringColumn(capacity, 8);
+        emails = new StringColumn(capacity, 24);
+        imageURLs = new StringColumn(capacity, 8);
+        rowsById = new IdIndex(capacity);
+    }
+
+    // Adds a row and returns its index.
+    public int append(int id, String firstName, String lastName, String department, String major,
+                      String email, String imageURL) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            departments = Arrays.copyOf(departments, capacity);
+            majors = Arrays.copyOf(majors, capacity);
+        }
+        int row = size++;
+        ids[row] = id;
+        departments[row] = departmentValues.code(department);
+        majors[row] = majorValues.code(major);
+        firstNames.add(firstName);
+        lastNames.add(lastName);
+        emails.add(email);
+        imageURLs.add(imageURL);
+        rowsById.put(id, row);
+        return row;
+    }
+
+    public int append(Person p) {
+        return append(p.getId(), p.getFirstName(), p.getLastName(), p.getDepartment(), p.getMajor(),
+                p.getEmail(), p.getImageURL());
+    }
+
+    // Replaces the row with p's values (keeping its id); undeletes it if needed.
+    public void set(int row, Person p) {
+        checkRow(row);
+        departments[row] = departmentValues.code(p.getDepartment());
+        majors[row] = majorValues.code(p.getMajor());
+        firstNames.set(row, p.getFirstName());
+        lastNames.set(row, p.getLastName());
+        emails.set(row, p.getEmail());
+        imageURLs.set(row, p.getImageURL());
+        if (deleted.get(row)) {
+            deleted.clear(row);
+            deletedCount--;
+        }
+    }
+
+    // Stores p in the row with its id, or a new row; returns the row.
+    public int put(Person p) {
+        int row = rowOf(p.getId());
+        if (row < 0) {
+            return append(p);
+        }
+        set(row, p);
+        return row;
+    }
+
+    public void delete(int row) {
+        checkRow(row);
+        if (!deleted.get(row)) {
+            deleted.set(row);
+            deletedCount++;
+        }
+    }
+
+    public boolean isDeleted(int row) {
+        return deleted.get(row);
+    }
+
+    // The row holding id (possibly deleted), or -1.
+    public int rowOf(int id) {
+        return rowsById.get(id);
+    }
+
+    // Rows ever appended, deleted ones included; valid row indexes are 0..size()-1.
+    public int size() {
+        return size;
+    }
+
+    public int liveCount() {
+        return size - deletedCount;
+    }
+
+    public int getId(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    public String getFirstName(int row) {
+        checkRow(row);
+        return firstNames.get(row);
+    }
+
+    public String getLastName(int row) {
+        checkRow(row);
+        return lastNames.get(row);
+    }
+
+    public String getDepartment(int row) {
+        checkRow(row);
+        return departmentValues.value(departments[row]);
+    }
+
+    public String getMajor(int row) {
+        checkRow(row);
+        return majorValues.value(majors[row]);
+    }
+
+    public String getEmail(int row) {
+        checkRow(row);
+        return emails.get(row);
+    }
+
+    public String getImageURL(int row) {
+        checkRow(row);
+        return imageURLs.get(row);
+    }
+
+    public PersonRow row(int row) {
+        checkRow(row);
+        return new PersonRow(this, row);
+    }
+
+    // A standalone copy of the row.
+    public Person toPerson(int row) {
+        return new Person(getId(row), getFirstName(row), getLastName(row), getDepartment(row),
+                getMajor(row), getEmail(row), getImageURL(row));
+    }
+
+    // Orders two rows by a column without decoding text, ignoring the case of ASCII
+    // letters; nulls first.
+    public int compare(Column column, int a, int b) {
+        return switch (column) {
+            case ID -> Integer.compare(ids[a], ids[b]);
+            case FIRST_NAME -> firstNames.compare(a, b);
+            case LAST_NAME -> lastNames.compare(a, b);
+            case DEPARTMENT -> departmentValues.compare(departments[a], departments[b]);
+            case MAJOR -> majorValues.compare(majors[a], majors[b]);
+            case EMAIL -> emails.compare(a, b);
+            case IMAGE_URL -> imageURLs.compare(a, b);
+        };
+    }
+
+    // Rewrites the text columns without the bytes of replaced values.
+    public void compact() {
+        firstNames.compact(size);
+        lastNames.compact(size);
+        emails.compact(size);
+        imageURLs.compact(size);
+    }
+
+    // Bytes of text no longer referenced by any row; worth a compact() once it rivals the live text.
+    public long getGarbageBytes() {
+        return firstNames.garbage + lastNames.garbage + emails.garbage + imageURLs.garbage;
+    }
+
+    // Approximate heap used by the arrays (capacity included).
+    public long estimateBytes() {
+        return 3L * 4 * ids.length + firstNames.bytes() + lastNames.bytes() + emails.bytes() + imageURLs.bytes()
+                + rowsById.bytes() + deleted.size() / 8;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+    }
+
+    // The distinct values of a low-cardinality column; code -1 is null.
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int code(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String value(int code) {
+            return code < 0 ? null : values.get(code);
+        }
+
+        int compare(int a, int b) {
+            if (a == b) {
+                return 0;
+            }
+            if (a < 0 || b < 0) {
+                return a < 0 ? -1 : 1;
+            }
+            return String.CASE_INSENSITIVE_ORDER.compare(values.get(a), values.get(b));
+        }
+    }
+
+    // Strings of one column as UTF-8 in a shared byte[]; length -1 is null.
+    private static final class StringColumn {
+        private byte[] data;
+        private int used;
+        private int[] starts;
+        private int[] lengths;
+        private int count;
+        long garbage;
+
+        StringColumn(int capacity, int bytesPerValue) {
+            data = new byte[Math.max(64, capacity * bytesPerValue)];
+            starts = new int[capacity];
+            lengths = new int[capacity];
+        }
+
+        void add(String value) {
+            if (count == starts.length) {
+                int capacity = count + (count >> 1);
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            write(count++, value);
+        }
+
+        void set(int row, String value) {
+            garbage += Math.max(0, lengths[row]);
+            write(row, value);
+        }
+
+        private void write(int row, String value) {
+            if (value == null) {
+                starts[row] = used;
+                lengths[row] = -1;
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensureRoom(bytes.length);
+            System.arraycopy(bytes, 0, data, used, bytes.length);
+            starts[row] = used;
+            lengths[row] = bytes.length;
+            used += bytes.length;
+        }
+
+        private void ensureRoom(int extra) {
+            if (used + extra > data.length) {
+                long capacity = Math.max((long) used + extra, (long) data.length + (data.length >> 1));
+                if (capacity > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Column text exceeds 2 GB");
+                }
+                data = Arrays.copyOf(data, (int) capacity);
+            }
+        }
+
+        String get(int row) {
+            int length = lengths[row];
+            return length < 0 ? null : new String(data, starts[row], length, StandardCharsets.UTF_8);
+        }
+
+        // Case-insensitive for ASCII letters, like the column collation; other bytes unsigned.
+        int compare(int a, int b) {
+            int lengthA = lengths[a];
+            int lengthB = lengths[b];
+            if (lengthA < 0 || lengthB < 0) {
+                return Integer.compare(lengthA < 0 ? 0 : 1, lengthB < 0 ? 0 : 1);
+            }
+            int startA = starts[a];
+            int startB = starts[b];
+            int length = Math.min(lengthA, lengthB);
+            for (int i = 0; i < length; i++) {
+                int x = data[startA + i] & 0xFF;
+                int y = data[startB + i] & 0xFF;
+                if (x != y) {
+                    x = x >= 'A' && x <= 'Z' ? x + 32 : x;
+                    y = y >= 'A' && y <= 'Z' ? y + 32 : y;
+                    if (x != y) {
+                        return x - y;
+                    }
+                }
+            }
+            return lengthA - lengthB;
+        }
+
+        void compact(int rows) {
+            if (garbage == 0) {
+                return;
+            }
+            byte[] packed = new byte[Math.max(64, (int) (used - garbage))];
+            int at = 0;
+            for (int row = 0; row < rows; row++) {
+                int length = lengths[row];
+                if (length > 0) {
+                    System.arraycopy(data, starts[row], packed, at, length);
+                }
+                starts[row] = at;
+                at += Math.max(0, length);
+            }
+            data = packed;
+            used = at;
+            garbage = 0;
+        }
+
+        long bytes() {
+            return data.length + 8L * starts.length;
+        }
+    }
+
+    // id -> row, open addressing with linear probing over two int arrays.
+    private static final class IdIndex {
+        private static final int EMPTY = -1;
+        private int[] keys;
+        private int[] rows;
+        private int count;
+
+        IdIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new int[capacity];
+            rows = new int[capacity];
+            Arrays.fill(rows, EMPTY);
+        }
+
+        void put(int id, int row) {
+            if ((count + 1) * 2 > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(id) & mask;
+            while (rows[slot] != EMPTY && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (rows[slot] == EMPTY) {
+                count++;
+            }
+            keys[slot] = id;
+            rows[slot] = row;
+        }
+
+        int get(int id) {
+            int mask = keys.length - 1;
+            int slot = mix(id) & mask;
+            while (rows[slot] != EMPTY) {
+                if (keys[slot] == id) {
+                    return rows[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return EMPTY;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldRows = rows;
+            keys = new int[oldKeys.length * 2];
+            rows = new int[oldRows.length * 2];
+            Arrays.fill(rows, EMPTY);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldRows[i] != EMPTY) {
+                    put(oldKeys[i], oldRows[i]);
+                }
+            }
+        }
+
+        private static int mix(int id) {
+            return id * 0x9E3779B9 >>> 7 ^ id;
+        }
+
+        long bytes() {
+            return 8L * keys.length;
+        }
+    }
+}
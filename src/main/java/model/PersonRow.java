@@ -0,0 +1,190 @@
+package model;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+
+// Read-only Person backed by one row of a PersonColumns; every getter decodes from
+// the columns, so a view costs one small object and reflects later changes to its
+// row. Views of the same row are equal. Use PersonColumns.toPerson for a copy that
+// can be edited.
+public class PersonRow extends Person {
+
+    // One of a view's values for a table cell. The row can't change under its view, so
+    // there is nothing to notify and listeners aren't kept; this is one small object
+    // where a detached property would also allocate listener storage.
+    public static final class Value<T> implements ObservableValue<T> {
+        private final T value;
+
+        public Value(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public T getValue() {
+            return value;
+        }
+
+        @Override
+        public void addListener(ChangeListener<? super T> listener) {
+        }
+
+        @Override
+        public void removeListener(ChangeListener<? super T> listener) {
+        }
+
+        @Override
+        public void addListener(InvalidationListener listener) {
+        }
+
+        @Override
+        public void removeListener(InvalidationListener listener) {
+        }
+    }
+
+    private final PersonColumns columns;
+    private final int row;
+
+    PersonRow(PersonColumns columns, int row) {
+        this.columns = columns;
+        this.row = row;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public PersonColumns getColumns() {
+        return columns;
+    }
+
+    @Override
+    public Integer getId() {
+        return columns.getId(row);
+    }
+
+    @Override
+    public String getFirstName() {
+        return columns.getFirstName(row);
+    }
+
+    @Override
+    public String getLastName() {
+        return columns.getLastName(row);
+    }
+
+    @Override
+    public String getDepartment() {
+        return columns.getDepartment(row);
+    }
+
+    @Override
+    public String getMajor() {
+        return columns.getMajor(row);
+    }
+
+    @Override
+    public String getEmail() {
+        return columns.getEmail(row);
+    }
+
+    @Override
+    public String getImageURL() {
+        return columns.getImageURL(row);
+    }
+
+    @Override
+    public void setId(Integer id) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setFirstName(String firstName) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setLastName(String lastName) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setDepartment(String department) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setMajor(String major) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setEmail(String email) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setImageURL(String imageURL) {
+        throw readOnly();
+    }
+
+    // Properties are detached snapshots of the row: the view can't be written, and a
+    // change to the row replaces the view in the list anyway.
+    @Override
+    public ObjectProperty<Integer> idProperty() {
+        return new SimpleObjectProperty<>(this, "id", getId());
+    }
+
+    @Override
+    public StringProperty firstNameProperty() {
+        return new SimpleStringProperty(this, "firstName", getFirstName());
+    }
+
+    @Override
+    public StringProperty lastNameProperty() {
+        return new SimpleStringProperty(this, "lastName", getLastName());
+    }
+
+    @Override
+    public StringProperty departmentProperty() {
+        return new SimpleStringProperty(this, "department", getDepartment());
+    }
+
+    @Override
+    public StringProperty majorProperty() {
+        return new SimpleStringProperty(this, "major", getMajor());
+    }
+
+    @Override
+    public StringProperty emailProperty() {
+        return new SimpleStringProperty(this, "email", getEmail());
+    }
+
+    @Override
+    public StringProperty imageURLProperty() {
+        return new SimpleStringProperty(this, "imageURL", getImageURL());
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Rows of a PersonColumns are read-only");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PersonRow other && other.columns == columns && other.row == row;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(columns) + row;
+    }
+
+    @Override
+    public String toString() {
+        return columns.toPerson(row).toString();
+    }
+}
@@ -4,6 +4,7 @@ module com.example.csc311_db_ui_semesterlongproject {
     requires java.sql;
     requires java.desktop;
     requires java.prefs;
+    requires java.management;
 
 
     opens viewmodel;
@@ -13,4 +14,6 @@ module com.example.csc311_db_ui_semesterlongproject {
     opens model;
     exports model;
     exports util;
+    // JMX reads the metric MXBean interfaces reflectively
+    exports metrics;
 }
\ No newline at end of file
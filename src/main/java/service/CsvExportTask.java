@@ -0,0 +1,76 @@
+package service;
+
+import dao.DbConnectivityClass;
+import javafx.concurrent.Task;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.Timer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Exports the users table to a CSV file off the JavaFX thread, streaming rows
+// from the database into a large buffered writer. The row count is not known up
+// front, so progress stays indeterminate and the message carries rows and
+// throughput. The result is the number of rows written.
+//
+// Rows go to a temporary file next to the target, which replaces the target only
+// once the export has finished; a cancelled or failed export leaves the target as it was.
+public class CsvExportTask extends Task<Integer> {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final Timer EXPORT_TIMER = Metrics.timer("csv.export");
+    private static final Counter EXPORTED_ROWS = Metrics.counter("csv.export.rows");
+    private static final AtomicLong lastRowsPerSecond = new AtomicLong();
+
+    static {
+        Metrics.gauge("csv.export.lastRowsPerSecond", lastRowsPerSecond::get);
+    }
+
+    private final File file;
+    private final DbConnectivityClass cnUtil;
+
+    public CsvExportTask(File file, DbConnectivityClass cnUtil) {
+        this.file = file;
+        this.cnUtil = cnUtil;
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        long start = System.nanoTime();
+        updateProgress(-1, 1);
+        int rows;
+        Path target = file.toPath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(Files.newOutputStream(tmp), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                rows = cnUtil.exportCSV(writer, this::isCancelled, written -> {
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    updateMessage(String.format("Exported %,d rows (%,.0f rows/sec)", written, written / seconds));
+                });
+            }
+            if (!isCancelled()) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        EXPORT_TIMER.recordSince(start);
+        EXPORTED_ROWS.add(rows);
+        lastRowsPerSecond.set(Math.round(rows / seconds));
+        MyLogger.get("csv").info("CSV export to {} {}", file.getName(), isCancelled() ? "cancelled" : "finished",
+                MyLogger.kv("rows", rows), MyLogger.kv("seconds", Math.round(seconds * 100) / 100.0),
+                MyLogger.kv("rowsPerSec", lastRowsPerSecond.get()));
+        return rows;
+    }
+}
@@ -0,0 +1,297 @@
+package service;
+
+import dao.DbConnectivityClass;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.Timer;
+import model.Person;
+import util.CsvReader;
+import util.CsvUtils;
+import util.FormValidator.Field;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Imports a CSV file off the JavaFX thread in three stages. A reader thread parses
+// records into chunks and hands each chunk to the common fork-join pool, which
+// checks its rows against the FormValidator rules in parallel. The task thread
+// takes the validated chunks back in file order, rejects repeated emails (the
+// first occurrence in the file wins) and upserts the accepted rows batchSize per
+// transaction, so only clean rows reach the database.
+//
+// Rejected rows are written to <name>.rejected.csv next to the imported file, with
+// their line number and the reasons. If that file can't be written, the import goes
+// on and only counts the rejected rows. Progress is the fraction of the file consumed,
+// and the message carries the row counts and throughput for the status bar. The
+// result is the number of rows written.
+public class CsvImportTask extends Task<Integer> {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final int MIN_FIELDS = 6;
+    private static final Field[] CHECKED = {Field.FIRST_NAME, Field.LAST_NAME, Field.DEPARTMENT, Field.MAJOR, Field.EMAIL};
+    private static final int[] CHECKED_COLUMNS = {0, 1, 2, 3, 4};
+    private static final CompletableFuture<Chunk> END = CompletableFuture.completedFuture(null);
+
+    private static final Timer IMPORT_TIMER = Metrics.timer("csv.import");
+    private static final Counter IMPORTED_ROWS = Metrics.counter("csv.import.rows");
+    private static final Counter REJECTED_ROWS = Metrics.counter("csv.import.rejected");
+    private static final AtomicLong lastRowsPerSecond = new AtomicLong();
+
+    static {
+        Metrics.gauge("csv.import.lastRowsPerSecond", lastRowsPerSecond::get);
+    }
+
+    private record Rejection(int line, String reason, String[] fields) {
+    }
+
+    // A run of consecutive records after validation.
+    private record Chunk(List<Person> accepted, int[] acceptedLines, List<Rejection> rejected) {
+    }
+
+    private final File file;
+    private final File reportFile;
+    private final DbConnectivityClass cnUtil;
+    private final int batchSize;
+    private final Consumer<List<Person>> onBatchCommitted;
+    private final BlockingQueue<CompletableFuture<Chunk>> chunks;
+
+    private volatile long charsRead;
+    private volatile Throwable readerFailure;
+    private volatile int rejected;
+    private Writer report;
+    private volatile boolean reportFailed;
+
+    // onBatchCommitted is called on the JavaFX thread with each batch once it is committed.
+    public CsvImportTask(File file, DbConnectivityClass cnUtil, int batchSize,
+                         Consumer<List<Person>> onBatchCommitted) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.file = file;
+        this.reportFile = new File(file.getAbsoluteFile().getParentFile(), baseName(file.getName()) + ".rejected.csv");
+        this.cnUtil = cnUtil;
+        this.batchSize = batchSize;
+        this.onBatchCommitted = onBatchCommitted;
+        // Enough chunks in flight to keep every core validating while a batch is written
+        this.chunks = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    // Where rejected rows were written; only exists if getRejected() > 0. Null if the
+    // report could not be written.
+    public File getReportFile() {
+        return reportFailed ? null : reportFile;
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        long fileSize = Math.max(1, file.length());
+        Files.deleteIfExists(reportFile.toPath());
+        Thread reader = new Thread(this::readFile, "csv-import-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long start = System.nanoTime();
+        int imported = 0;
+        // Lower-cased email -> line it was first seen on
+        Map<String, Integer> emailLines = new HashMap<>();
+        List<Person> batch = new ArrayList<>(batchSize);
+        try {
+            while (!isCancelled()) {
+                CompletableFuture<Chunk> next = chunks.poll(100, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    continue;
+                }
+                Chunk chunk = next.join();
+                if (chunk != null) {
+                    for (Rejection r : chunk.rejected()) {
+                        reject(r);
+                    }
+                    for (int i = 0; i < chunk.accepted().size(); i++) {
+                        Person p = chunk.accepted().get(i);
+                        int line = chunk.acceptedLines()[i];
+                        Integer firstLine = emailLines.putIfAbsent(p.getEmail().toLowerCase(Locale.ROOT), line);
+                        if (firstLine != null) {
+                            reject(new Rejection(line, "Duplicate email, first used on line " + firstLine, fieldsOf(p)));
+                        } else {
+                            batch.add(p);
+                        }
+                    }
+                }
+                if (batch.size() >= batchSize || (next == END && !batch.isEmpty())) {
+                    cnUtil.upsertBatch(batch);
+                    imported += batch.size();
+                    IMPORTED_ROWS.add(batch.size());
+                    publish(batch);
+                    batch = new ArrayList<>(batchSize);
+
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    updateProgress(Math.min(charsRead, fileSize), fileSize);
+                    updateMessage(String.format("Imported %,d rows, rejected %,d (%,.0f rows/sec)",
+                            imported, rejected, imported / seconds));
+                }
+                if (next == END) {
+                    break;
+                }
+            }
+        } finally {
+            reader.interrupt();
+            closeReport();
+        }
+
+        if (readerFailure != null) {
+            throw new IOException("Failed to read " + file.getName() + ": " + readerFailure.getMessage(), readerFailure);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        IMPORT_TIMER.recordSince(start);
+        REJECTED_ROWS.add(rejected);
+        lastRowsPerSecond.set(Math.round(imported / seconds));
+        MyLogger.get("csv").info("CSV import of {} {}", file.getName(), isCancelled() ? "cancelled" : "finished",
+                MyLogger.kv("rows", imported), MyLogger.kv("rejected", rejected),
+                MyLogger.kv("report", rejected > 0 && !reportFailed ? reportFile : "none"),
+                MyLogger.kv("seconds", Math.round(seconds * 100) / 100.0),
+                MyLogger.kv("rowsPerSec", lastRowsPerSecond.get()));
+        return imported;
+    }
+
+    private void publish(List<Person> batch) {
+        if (onBatchCommitted != null) {
+            Platform.runLater(() -> onBatchCommitted.accept(batch));
+        }
+    }
+
+    private void readFile() {
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
+            reader.readRecord(); // Skip header
+            List<String[]> records = new ArrayList<>(batchSize);
+            int[] lines = new int[batchSize];
+            String[] fields;
+            while ((fields = reader.readRecord()) != null) {
+                lines[records.size()] = reader.getRecordLine();
+                records.add(fields);
+                charsRead = reader.getCharsRead();
+                if (records.size() == batchSize) {
+                    submit(records, lines);
+                    records = new ArrayList<>(batchSize);
+                    lines = new int[batchSize];
+                }
+            }
+            if (!records.isEmpty()) {
+                submit(records, lines);
+            }
+        } catch (InterruptedException e) {
+            return; // cancelled; the task thread has stopped consuming
+        } catch (Throwable t) {
+            readerFailure = t;
+        }
+        try {
+            chunks.put(END);
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    private void submit(List<String[]> records, int[] lines) throws InterruptedException {
+        chunks.put(CompletableFuture.supplyAsync(() -> validate(records, lines)));
+    }
+
+    // Runs on a fork-join worker: checks each record on its own, without looking at other rows.
+    private static Chunk validate(List<String[]> records, int[] lines) {
+        List<Person> accepted = new ArrayList<>(records.size());
+        int[] acceptedLines = new int[records.size()];
+        List<Rejection> rejected = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            String[] fields = records.get(i);
+            if (fields.length < MIN_FIELDS) {
+                rejected.add(new Rejection(lines[i], "Expected " + MIN_FIELDS + " fields, found " + fields.length, fields));
+                continue;
+            }
+            for (int f = 0; f < MIN_FIELDS; f++) {
+                fields[f] = fields[f].trim();
+            }
+            String reasons = null;
+            for (int c = 0; c < CHECKED.length; c++) {
+                String error = CHECKED[c].error(fields[CHECKED_COLUMNS[c]]);
+                if (error != null) {
+                    reasons = reasons == null ? error : reasons + "; " + error;
+                }
+            }
+            if (reasons != null) {
+                rejected.add(new Rejection(lines[i], reasons, fields));
+            } else {
+                acceptedLines[accepted.size()] = lines[i];
+                accepted.add(new Person(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5]));
+            }
+        }
+        return new Chunk(accepted, acceptedLines, rejected);
+    }
+
+    private void reject(Rejection r) {
+        rejected++;
+        if (reportFailed) {
+            return;
+        }
+        try {
+            if (report == null) {
+                report = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8);
+                report.write("Line,Reason," + CsvUtils.HEADER + "\n");
+            }
+            StringBuilder line = new StringBuilder();
+            line.append(r.line()).append(',').append(CsvUtils.escape(r.reason()));
+            for (String field : r.fields()) {
+                line.append(',').append(CsvUtils.escape(field));
+            }
+            report.write(line.append('\n').toString());
+        } catch (IOException e) {
+            // Not worth failing an import that is partly committed; the rows are still counted
+            MyLogger.get("csv").warn("Could not write the rejected-rows report {}: {}", reportFile, e.getMessage());
+            reportFailed = true;
+            closeReport();
+            try {
+                Files.deleteIfExists(reportFile.toPath());
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void closeReport() {
+        if (report == null) {
+            return;
+        }
+        try {
+            report.close();
+        } catch (IOException e) {
+            MyLogger.get("csv").warn("Could not finish the rejected-rows report {}: {}", reportFile, e.getMessage());
+        } finally {
+            report = null;
+        }
+    }
+
+    private static String[] fieldsOf(Person p) {
+        return new String[]{p.getFirstName(), p.getLastName(), p.getDepartment(), p.getMajor(), p.getEmail(), p.getImageURL()};
+    }
+
+    private static String baseName(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
@@ -0,0 +1,168 @@
+package service;
+
+import javafx.scene.image.Image;
+import metrics.Metrics;
+import metrics.Timer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Loads profile images off the JavaFX thread, decoded straight to the size they
+// are displayed at rather than at full resolution. Decoded images are kept in an
+// LRU bounded by their pixel memory, and concurrent requests for the same image
+// share one decode. With a ThumbnailStore, thumbnails also survive restarts: a
+// memory miss is served from the store when possible, and every decode is saved
+// to it. Futures complete on a decoder thread; callers hop back to the JavaFX
+// thread themselves.
+public class ImageService {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService DECODERS = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "image-decoder-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Timer DECODE_TIMER = Metrics.timer("image.decode");
+
+    private final long maxBytes;
+    private final ThumbnailStore store;
+    private final Map<String, Image> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<Image>> inFlight = new ConcurrentHashMap<>();
+    private long cachedBytes;
+
+    // store may be null to keep thumbnails in memory only.
+    public ImageService(long maxBytes, ThumbnailStore store) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.store = store;
+        Metrics.gauge("imageCache.bytes", this::getCachedBytes);
+    }
+
+    // The image at url scaled to fit width x height (keeping its aspect ratio).
+    public CompletableFuture<Image> load(String url, double width, double height) {
+        String key = key(url, width, height);
+        Image cached = getCached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Image> future = new CompletableFuture<>();
+        CompletableFuture<Image> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        DECODERS.execute(() -> {
+            try {
+                // Another request may have finished between the cache check and the claim.
+                Image image = getCached(key);
+                if (image == null) {
+                    image = decode(url, width, height);
+                    put(key, image);
+                }
+                future.complete(image);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                inFlight.remove(key);
+            }
+        });
+        return future;
+    }
+
+    // Starts loading an image that is likely to be needed soon; failures are ignored.
+    public void prefetch(String url, double width, double height) {
+        if (url != null && !url.isBlank()) {
+            load(url, width, height);
+        }
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        cachedBytes = 0;
+    }
+
+    private Image decode(String url, double width, double height) throws Exception {
+        if (store == null) {
+            return decode(url, null, width, height);
+        }
+        int boxWidth = (int) Math.round(width);
+        int boxHeight = (int) Math.round(height);
+        Image stored = store.get(url, boxWidth, boxHeight);
+        if (stored != null) {
+            return stored;
+        }
+        byte[] bytes;
+        try (InputStream in = URI.create(url).toURL().openStream()) {
+            bytes = in.readAllBytes();
+        }
+        long contentHash = ThumbnailStore.contentHash(bytes);
+        stored = store.getByContent(url, contentHash, boxWidth, boxHeight);
+        if (stored != null) {
+            return stored;
+        }
+        Image image = decode(url, bytes, width, height);
+        store.put(url, contentHash, boxWidth, boxHeight, image);
+        return image;
+    }
+
+    // Decodes bytes, or reads url itself when bytes is null.
+    private static Image decode(String url, byte[] bytes, double width, double height) throws Exception {
+        long start = System.nanoTime();
+        try {
+            // backgroundLoading=false: this already is the background, so decode here and now.
+            Image image = bytes == null
+                    ? new Image(url, width, height, true, true, false)
+                    : new Image(new ByteArrayInputStream(bytes), width, height, true, true);
+            if (image.isError()) {
+                Exception e = image.getException();
+                throw e != null ? e : new IllegalArgumentException("Cannot load image " + url);
+            }
+            return image;
+        } finally {
+            DECODE_TIMER.recordSince(start);
+        }
+    }
+
+    private synchronized Image getCached(String key) {
+        return cache.get(key);
+    }
+
+    private synchronized void put(String key, Image image) {
+        Image previous = cache.put(key, image);
+        if (previous != null) {
+            cachedBytes -= bytesOf(previous);
+        }
+        cachedBytes += bytesOf(image);
+        Iterator<Map.Entry<String, Image>> eldest = cache.entrySet().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            Image evicted = eldest.next().getValue();
+            if (evicted == image) {
+                break;
+            }
+            cachedBytes -= bytesOf(evicted);
+            eldest.remove();
+        }
+    }
+
+    private static long bytesOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    private static String key(String url, double width, double height) {
+        return Math.round(width) + "x" + Math.round(height) + " " + url;
+    }
+}
@@ -0,0 +1,331 @@
+package service;
+
+import service.MyLogger.Field;
+import service.MyLogger.Level;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Backend of MyLogger: a bounded multi-producer ring buffer drained by one daemon
+// thread that formats entries and writes them to a rolling file (and the console).
+//
+// The ring is a sequence-numbered array of preallocated entries: a producer claims a
+// slot with one CAS on the tail, fills it and publishes it by bumping the slot's
+// sequence, so logging never takes a lock or waits for I/O. If the writer falls so
+// far behind that the ring is full, the message is dropped and counted; the writer
+// reports the count once it catches up.
+//
+// Settings (system properties): csc311.log.dir (default ~/.csc311/logs),
+// csc311.log.maxFileBytes (10 MB), csc311.log.maxFiles (5 rolled files kept),
+// csc311.log.bufferSize (8192 entries, rounded up to a power of two) and
+// csc311.log.console (true).
+final class LogWriter implements Runnable {
+
+    static final LogWriter INSTANCE = start();
+
+    private static final String FILE_NAME = "csc311.log";
+    private static final long IDLE_PARK_NANOS = 10_000_000;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private static final class Entry {
+        long time;
+        Level level;
+        String category;
+        String thread;
+        String template;
+        Object[] args;
+    }
+
+    private final Entry[] entries;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    // Next sequence to consume; only the writer thread touches it.
+    private long head;
+
+    private final Path dir;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final boolean console;
+    private final StringBuilder line = new StringBuilder(256);
+    private Writer out;
+    private long fileBytes;
+
+    private volatile boolean running = true;
+    private Thread thread;
+
+    private LogWriter(int capacity, Path dir, long maxFileBytes, int maxFiles, boolean console) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.entries = new Entry[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            entries[i] = new Entry();
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.dir = dir;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.console = console;
+    }
+
+    private static LogWriter start() {
+        LogWriter writer = new LogWriter(
+                Integer.getInteger("csc311.log.bufferSize", 8192),
+                Paths.get(System.getProperty("csc311.log.dir",
+                        Paths.get(System.getProperty("user.home"), ".csc311", "logs").toString())),
+                Long.getLong("csc311.log.maxFileBytes", 10L * 1024 * 1024),
+                Integer.getInteger("csc311.log.maxFiles", 5),
+                Boolean.parseBoolean(System.getProperty("csc311.log.console", "true")));
+        writer.thread = new Thread(writer, "log-writer");
+        writer.thread.setDaemon(true);
+        writer.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::shutdown, "log-flush"));
+        return writer;
+    }
+
+    void enqueue(Level level, String category, String template, Object[] args) {
+        long pos = tail.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return;
+            } else {
+                pos = tail.get();
+            }
+        }
+        Entry e = entries[index];
+        e.time = System.currentTimeMillis();
+        e.level = level;
+        e.category = category;
+        e.thread = Thread.currentThread().getName();
+        e.template = template;
+        e.args = args;
+        sequences.set(index, pos + 1);
+    }
+
+    @Override
+    public void run() {
+        open();
+        while (running) {
+            if (!drain()) {
+                flush();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain();
+        flush();
+        closeQuietly();
+    }
+
+    // Flushes what has been logged so far; called on JVM exit.
+    private void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes every published entry; false if there was nothing to write.
+    private boolean drain() {
+        boolean any = false;
+        while (true) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            Entry e = entries[index];
+            format(e.time, e.level, e.category, e.thread, e.template, e.args);
+            e.args = null;
+            e.template = null;
+            sequences.set(index, head + mask + 1);
+            head++;
+            any = true;
+            write();
+        }
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            format(System.currentTimeMillis(), Level.WARN, "log", thread.getName(),
+                    "Dropped {} log messages: the log buffer was full", new Object[]{lost});
+            write();
+        }
+        return any;
+    }
+
+    private void format(long time, Level level, String category, String threadName, String template, Object[] args) {
+        StringBuilder sb = line;
+        sb.setLength(0);
+        sb.append(TIMESTAMP.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault())));
+        sb.append(' ').append(level);
+        for (int i = level.name().length(); i < 5; i++) {
+            sb.append(' ');
+        }
+        sb.append(" [").append(threadName).append("] ").append(category).append(" - ");
+
+        int argCount = args == null ? 0 : args.length;
+        Throwable thrown = argCount > 0 && args[argCount - 1] instanceof Throwable t ? t : null;
+        if (thrown != null) {
+            argCount--;
+        }
+        int next = 0;
+        String text = template == null ? "null" : template;
+        int from = 0;
+        for (int at = text.indexOf("{}"); at >= 0; at = text.indexOf("{}", from)) {
+            while (next < argCount && args[next] instanceof Field) {
+                next++;
+            }
+            if (next >= argCount) {
+                break;
+            }
+            sb.append(text, from, at).append(args[next++]);
+            from = at + 2;
+        }
+        sb.append(text, from, text.length());
+
+        for (int i = 0; i < argCount; i++) {
+            if (args[i] instanceof Field field) {
+                sb.append(' ').append(field.key()).append('=');
+                appendValue(sb, field.value());
+            }
+        }
+        if (thrown != null) {
+            StringWriter trace = new StringWriter();
+            thrown.printStackTrace(new PrintWriter(trace));
+            sb.append(System.lineSeparator()).append(trace.toString().stripTrailing());
+        }
+        sb.append(System.lineSeparator());
+    }
+
+    // Quotes values that would otherwise be ambiguous in a key=value line.
+    private static void appendValue(StringBuilder sb, Object value) {
+        String s = String.valueOf(value);
+        boolean quote = s.isEmpty();
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ' ' || c == '=' || c == '"' || c == '\n' || c == '\r' || c == '\t';
+        }
+        if (!quote) {
+            sb.append(s);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private void write() {
+        if (console) {
+            System.err.append(line);
+        }
+        if (out == null) {
+            return;
+        }
+        try {
+            out.append(line);
+            // Close enough for rolling: the lines are almost entirely ASCII.
+            fileBytes += line.length();
+            if (fileBytes >= maxFileBytes) {
+                roll();
+            }
+        } catch (IOException e) {
+            System.err.println("Logging to " + dir.resolve(FILE_NAME) + " failed, continuing on the console only: " + e);
+            closeQuietly();
+        }
+    }
+
+    private void flush() {
+        try {
+            if (out != null) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            closeQuietly();
+        }
+        if (console) {
+            System.err.flush();
+        }
+    }
+
+    // csc311.log -> csc311.log.1 -> ... -> csc311.log.<maxFiles>, dropping the oldest.
+    private void roll() throws IOException {
+        out.close();
+        out = null;
+        Path base = dir.resolve(FILE_NAME);
+        Files.deleteIfExists(dir.resolve(FILE_NAME + "." + maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path from = dir.resolve(FILE_NAME + "." + i);
+            if (Files.exists(from)) {
+                Files.move(from, dir.resolve(FILE_NAME + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(base, dir.resolve(FILE_NAME + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(base);
+        }
+        open();
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(dir);
+            Path file = dir.resolve(FILE_NAME);
+            fileBytes = Files.exists(file) ? Files.size(file) : 0;
+            out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8), 1 << 16);
+        } catch (IOException e) {
+            System.err.println("Cannot open log file in " + dir + ", logging to the console only: " + e);
+            out = null;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException ignored) {
+        } finally {
+            out = null;
+        }
+    }
+}
@@ -1,17 +1,158 @@
 package service;
 
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+// Application logging. Each logger has a category ("dao", "ui", ...) and a level;
+// a call below the level returns after one comparison, without formatting or
+// allocating anything. Enabled calls only copy the template and arguments into a
+// lock-free ring buffer; a background thread formats them and writes a rolling
+// log file (see LogWriter), so the caller never waits on I/O.
+//
+// Messages are parameterized: every {} in the template is replaced by the next
+// argument, and kv(...) arguments are appended as structured key=value fields.
+// A Throwable as the last argument is written with its stack trace.
+//
+//   private static final MyLogger log = MyLogger.get("dao");
+//   log.debug("Loaded page {}", page, kv("rows", rows.size()), kv("ms", elapsed));
+//
+// Arguments are formatted later on the writer thread, so pass values that won't
+// change afterwards. Levels come from -Dcsc311.log.level (default INFO) and can be
+// set per category with -Dcsc311.log.level.<category>.
 public class MyLogger {
 
-    private final static Logger LOGGER =
-            Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    // A structured field, written as key=value after the message.
+    public record Field(String key, Object value) {
+    }
+
+    private static final Level DEFAULT_LEVEL = parseLevel(System.getProperty("csc311.log.level"), Level.INFO);
+    private static final Map<String, MyLogger> loggers = new ConcurrentHashMap<>();
+    private static final MyLogger APP = get("app");
+
+    private final String category;
+    private volatile Level level;
+
+    private MyLogger(String category) {
+        this.category = category;
+        this.level = parseLevel(System.getProperty("csc311.log.level." + category), DEFAULT_LEVEL);
+    }
 
+    public static MyLogger get(String category) {
+        return loggers.computeIfAbsent(category, MyLogger::new);
+    }
+
+    public static Field kv(String key, Object value) {
+        return new Field(key, value);
+    }
+
+    // Logs msg at INFO under the "app" category.
+    public static void makeLog(String msg) {
+        APP.info(msg);
+    }
+
+    public String getCategory() {
+        return category;
+    }
 
-    public static void makeLog(String msg)
-    {
-        LOGGER.log(Level.INFO, "CSC311_Log__ "+msg);
+    public Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level != Level.OFF && level.ordinal() >= this.level.ordinal();
+    }
+
+    public void log(Level level, String template, Object... args) {
+        if (isEnabled(level)) {
+            LogWriter.INSTANCE.enqueue(level, category, template, args);
+        }
+    }
+
+    // The supplier runs on the calling thread, and only if the level is enabled.
+    public void log(Level level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            LogWriter.INSTANCE.enqueue(level, category, message.get(), null);
+        }
+    }
+
+    public void trace(String msg) {
+        log(Level.TRACE, msg, (Object[]) null);
+    }
+
+    public void trace(String template, Object... args) {
+        log(Level.TRACE, template, args);
+    }
+
+    public void trace(Supplier<String> message) {
+        log(Level.TRACE, message);
+    }
+
+    public void debug(String msg) {
+        log(Level.DEBUG, msg, (Object[]) null);
+    }
+
+    public void debug(String template, Object... args) {
+        log(Level.DEBUG, template, args);
+    }
+
+    public void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    public void info(String msg) {
+        log(Level.INFO, msg, (Object[]) null);
+    }
+
+    public void info(String template, Object... args) {
+        log(Level.INFO, template, args);
+    }
+
+    public void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public void warn(String msg) {
+        log(Level.WARN, msg, (Object[]) null);
+    }
+
+    public void warn(String template, Object... args) {
+        log(Level.WARN, template, args);
+    }
+
+    public void warn(Supplier<String> message) {
+        log(Level.WARN, message);
+    }
+
+    public void error(String msg) {
+        log(Level.ERROR, msg, (Object[]) null);
+    }
+
+    public void error(String template, Object... args) {
+        log(Level.ERROR, template, args);
+    }
+
+    public void error(Supplier<String> message) {
+        log(Level.ERROR, message);
+    }
 
+    static Level parseLevel(String value, Level defaultLevel) {
+        if (value == null || value.isBlank()) {
+            return defaultLevel;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
     }
 }
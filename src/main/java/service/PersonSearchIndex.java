@@ -0,0 +1,203 @@
+package service;
+
+import model.Person;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// In-memory type-ahead index over the loaded rows' name, email, department and
+// major. Every field is indexed by its character trigrams, plus the one- and
+// two-character prefixes of each word so that short queries work too:
+//
+//   - a query of three or more characters matches rows containing it anywhere;
+//   - a one- or two-character query matches rows with a word starting with it.
+//
+// A search walks only the shortest posting list among the query's grams and
+// checks each candidate against the row text, so its cost follows the number of
+// plausible matches rather than the number of rows. Removing a row leaves its
+// postings behind (the text check skips them); the postings are rebuilt once
+// stale rows outnumber live ones.
+//
+// Not thread-safe; the controller uses it from the JavaFX thread.
+public class PersonSearchIndex {
+
+    private static final char FIELD_SEPARATOR = '\u0000';
+    private static final long TRIGRAM = 1L << 50;
+    private static final long PREFIX2 = 2L << 50;
+    private static final long PREFIX1 = 3L << 50;
+    private static final BitSet NONE = new BitSet();
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+    // Normalized text of every live row, by id
+    private final Map<Integer, String> texts = new HashMap<>();
+    private int staleRows;
+
+    public void add(Person p) {
+        if (p.getId() == null) {
+            return;
+        }
+        int id = p.getId();
+        if (texts.containsKey(id)) {
+            remove(id);
+        }
+        String text = textOf(p);
+        texts.put(id, text);
+        index(id, text);
+    }
+
+    public void remove(int id) {
+        if (texts.remove(id) != null && ++staleRows > texts.size()) {
+            rebuild();
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        texts.clear();
+        staleRows = 0;
+    }
+
+    public int size() {
+        return texts.size();
+    }
+
+    // Ids of the rows matching query, or null when the query is blank (everything matches).
+    // The returned set must not be modified.
+    public BitSet search(String query) {
+        String q = normalize(query).trim();
+        if (q.isEmpty()) {
+            return null;
+        }
+        IntList candidates;
+        if (q.length() >= 3) {
+            candidates = null;
+            for (int i = 0; i + 3 <= q.length(); i++) {
+                IntList list = postings.get(trigram(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2)));
+                if (list == null) {
+                    return NONE;
+                }
+                if (candidates == null || list.size < candidates.size) {
+                    candidates = list;
+                }
+            }
+        } else {
+            candidates = postings.get(q.length() == 1 ? prefix1(q.charAt(0)) : prefix2(q.charAt(0), q.charAt(1)));
+            if (candidates == null) {
+                return NONE;
+            }
+        }
+
+        BitSet result = new BitSet();
+        for (int i = 0; i < candidates.size; i++) {
+            int id = candidates.values[i];
+            if (!result.get(id)) {
+                String text = texts.get(id);
+                if (text != null && matchesText(text, q)) {
+                    result.set(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Same rule as search, for a row that isn't indexed (e.g. one without an id yet).
+    public static boolean matches(Person p, String query) {
+        String q = normalize(query).trim();
+        return q.isEmpty() || matchesText(textOf(p), q);
+    }
+
+    private void index(int id, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c0 = text.charAt(i);
+            if (c0 == FIELD_SEPARATOR) {
+                continue;
+            }
+            boolean hasNext = i + 1 < text.length() && text.charAt(i + 1) != FIELD_SEPARATOR;
+            if (isWordStart(text, i) && isWordChar(c0)) {
+                post(prefix1(c0), id);
+                if (hasNext) {
+                    post(prefix2(c0, text.charAt(i + 1)), id);
+                }
+            }
+            if (hasNext && i + 2 < text.length() && text.charAt(i + 2) != FIELD_SEPARATOR) {
+                post(trigram(c0, text.charAt(i + 1), text.charAt(i + 2)), id);
+            }
+        }
+    }
+
+    private void post(long gram, int id) {
+        postings.computeIfAbsent(gram, k -> new IntList()).add(id);
+    }
+
+    private void rebuild() {
+        postings.clear();
+        staleRows = 0;
+        for (Map.Entry<Integer, String> entry : texts.entrySet()) {
+            index(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static boolean matchesText(String text, String q) {
+        if (q.length() >= 3) {
+            return text.contains(q);
+        }
+        // Only words get prefix postings, and a word starts with a letter or digit
+        if (!isWordChar(q.charAt(0))) {
+            return false;
+        }
+        for (int i = text.indexOf(q); i >= 0; i = text.indexOf(q, i + 1)) {
+            if (isWordStart(text, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordStart(String text, int i) {
+        return i == 0 || !isWordChar(text.charAt(i - 1));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    // First and last name are joined with a space so "ada lov" finds "Ada Lovelace";
+    // the other fields are kept apart so a query never spans two of them.
+    private static String textOf(Person p) {
+        return normalize(p.getFirstName()) + ' ' + normalize(p.getLastName())
+                + FIELD_SEPARATOR + normalize(p.getEmail())
+                + FIELD_SEPARATOR + normalize(p.getDepartment())
+                + FIELD_SEPARATOR + normalize(p.getMajor());
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(char c0, char c1, char c2) {
+        return TRIGRAM | ((long) c0 << 32) | ((long) c1 << 16) | c2;
+    }
+
+    private static long prefix2(char c0, char c1) {
+        return PREFIX2 | ((long) c0 << 16) | c1;
+    }
+
+    private static long prefix1(char c0) {
+        return PREFIX1 | c0;
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
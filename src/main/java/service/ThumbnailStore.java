@@ -0,0 +1,435 @@
+package service;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Persistent cache of decoded thumbnails, so a restart doesn't re-read and
+// re-decode every full-size profile image.
+//
+// Pixels live in one memory-mapped data file (premultiplied BGRA, the format
+// JavaFX renders from), and a hit is handed out as a WritableImage over a slice
+// of that mapping: no file read, no decode, no copy. The index, a small file
+// of records appended as thumbnails are added, maps URL + display size to the
+// SHA-256 of the source bytes and a region of the data file. Identical images
+// under different URLs share one region. A file: URL whose size or modification
+// time changed is treated as a miss.
+//
+// The data file is capped at maxBytes. When it is full, the most recently used
+// regions are copied into a new generation of the file, dropping the rest, and
+// the index is rewritten. Images already handed out keep the old mapping alive,
+// so compaction never changes pixels under them.
+//
+// Only one process may use a store directory at a time: the constructor takes a
+// lock on thumbnails.lock and fails if another instance holds it. The index is
+// replaced on compaction, so it can't carry the lock itself.
+public class ThumbnailStore {
+
+    private static final MyLogger log = MyLogger.get("images");
+
+    private static final int INDEX_MAGIC = 0x54484D42; // "THMB"
+    private static final int INDEX_VERSION = 1;
+    private static final String INDEX_FILE = "thumbnails.idx";
+    private static final String LOCK_FILE = "thumbnails.lock";
+    private static final String DATA_PREFIX = "thumbnails-";
+    private static final String DATA_SUFFIX = ".dat";
+    // Share of the cap kept by a compaction, leaving room to add before the next one.
+    private static final double COMPACTION_KEEP = 0.75;
+    // sourceStamp of a file: URL that can't be read; never matches, even itself.
+    private static final long UNREADABLE = -1;
+
+    private static ThumbnailStore shared;
+    private static boolean sharedOpened;
+
+    // Pixels of one decoded thumbnail in the data file.
+    private static final class Region {
+        long offset;
+        final int width;
+        final int height;
+        long lastAccess;
+
+        Region(long offset, int width, int height, long lastAccess) {
+            this.offset = offset;
+            this.width = width;
+            this.height = height;
+            this.lastAccess = lastAccess;
+        }
+
+        long length() {
+            return (long) width * height * 4;
+        }
+    }
+
+    private record Entry(String url, int boxWidth, int boxHeight, long stamp, long contentHash, Region region) {
+    }
+
+    private final Path dir;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new HashMap<>();
+    // Regions by content hash and display size, so equal images are stored once.
+    private final Map<String, Region> regionsByContent = new HashMap<>();
+
+    private long generation;
+    private MappedByteBuffer data;
+    private long dataEnd;
+    private DataOutputStream indexOut;
+    private FileChannel lockChannel;
+
+    public ThumbnailStore(Path dir, long maxBytes) throws IOException {
+        if (maxBytes < 1 || maxBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Store size must be between 1 byte and 2 GB: " + maxBytes);
+        }
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(dir);
+        lock();
+        try {
+            if (!loadIndex()) {
+                // Records appended after a torn one could never be read back
+                Files.deleteIfExists(dir.resolve(INDEX_FILE));
+            }
+            deleteOldGenerations();
+            map();
+            openIndexForAppend();
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    // The store under ~/.csc311/thumbnails (size cap: -Dcsc311.thumbnailStore.bytes, default 64 MB),
+    // opened on first use and saved on exit; null if it can't be opened.
+    public static synchronized ThumbnailStore shared() {
+        if (!sharedOpened) {
+            sharedOpened = true;
+            try {
+                shared = new ThumbnailStore(Paths.get(System.getProperty("user.home"), ".csc311", "thumbnails"),
+                        Long.getLong("csc311.thumbnailStore.bytes", 64L * 1024 * 1024));
+                Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "thumbnail-store-close"));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Thumbnail store unavailable, thumbnails are only cached in memory: {}", e.getMessage());
+            }
+        }
+        return shared;
+    }
+
+    // The stored thumbnail of url for a width x height box, or null if there is none
+    // or the source file has changed since it was stored.
+    public synchronized Image get(String url, int width, int height) {
+        Entry entry = entries.get(key(url, width, height));
+        if (entry == null || data == null) {
+            return null;
+        }
+        long stamp = sourceStamp(url);
+        if (stamp == UNREADABLE || entry.stamp() != stamp) {
+            entries.remove(key(url, width, height));
+            return null;
+        }
+        return view(entry.region());
+    }
+
+    // The stored thumbnail of another URL with the same content, recorded under url too;
+    // null if this content hasn't been stored at this size.
+    public synchronized Image getByContent(String url, long contentHash, int width, int height) {
+        Region region = regionsByContent.get(contentKey(contentHash, width, height));
+        if (region == null || data == null) {
+            return null;
+        }
+        record(new Entry(url, width, height, sourceStamp(url), contentHash, region));
+        return view(region);
+    }
+
+    // Stores image (already decoded to fit width x height) as the thumbnail of url.
+    public synchronized void put(String url, long contentHash, int width, int height, Image image) {
+        if (data == null) {
+            return;
+        }
+        int w = (int) image.getWidth();
+        int h = (int) image.getHeight();
+        long length = (long) w * h * 4;
+        if (image.getPixelReader() == null || length == 0 || length > maxBytes * COMPACTION_KEEP) {
+            return;
+        }
+        try {
+            if (dataEnd + length > maxBytes) {
+                compact();
+            }
+            ByteBuffer target = data.slice((int) dataEnd, (int) length);
+            image.getPixelReader().getPixels(0, 0, w, h, PixelFormat.getByteBgraPreInstance(), target, w * 4);
+            // The pixels must be on disk before the index record that points at them
+            data.force((int) dataEnd, (int) length);
+            Region region = new Region(dataEnd, w, h, System.currentTimeMillis());
+            dataEnd += length;
+            regionsByContent.put(contentKey(contentHash, width, height), region);
+            record(new Entry(url, width, height, sourceStamp(url), contentHash, region));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not store thumbnail of {}: {}", url, e.getMessage());
+        }
+    }
+
+    public static long contentHash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Writes the index with current access times, so the next run's LRU order is right.
+    public synchronized void close() {
+        try {
+            if (indexOut != null) {
+                indexOut.close();
+                indexOut = null;
+            }
+            if (data != null) {
+                data.force();
+                writeIndex();
+            }
+        } catch (IOException e) {
+            log.warn("Could not save thumbnail index: {}", e.getMessage());
+        }
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            log.debug("Could not release thumbnail store lock: {}", e.getMessage());
+        }
+    }
+
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Thumbnail store " + dir + " is in use by another instance");
+        }
+    }
+
+    private Image view(Region region) {
+        region.lastAccess = System.currentTimeMillis();
+        ByteBuffer pixels = data.slice((int) region.offset, (int) region.length());
+        return new WritableImage(new PixelBuffer<>(region.width, region.height, pixels,
+                PixelFormat.getByteBgraPreInstance()));
+    }
+
+    private void record(Entry entry) {
+        entries.put(key(entry.url(), entry.boxWidth(), entry.boxHeight()), entry);
+        if (indexOut == null) {
+            return;
+        }
+        try {
+            writeEntry(indexOut, entry);
+            indexOut.flush();
+        } catch (IOException e) {
+            log.warn("Could not append to thumbnail index: {}", e.getMessage());
+        }
+    }
+
+    // Keeps the most recently used regions that fit in COMPACTION_KEEP of the cap,
+    // copied into a new generation of the data file.
+    private void compact() throws IOException {
+        List<Region> regions = new ArrayList<>(regionsByContent.values());
+        regions.sort(Comparator.comparingLong((Region r) -> r.lastAccess).reversed());
+        Map<Region, Boolean> kept = new IdentityHashMap<>();
+        long keptBytes = 0;
+        for (Region region : regions) {
+            if (keptBytes + region.length() <= maxBytes * COMPACTION_KEEP) {
+                kept.put(region, Boolean.TRUE);
+                keptBytes += region.length();
+            }
+        }
+
+        MappedByteBuffer old = data;
+        long oldGeneration = generation;
+        generation++;
+        data = null;
+        map();
+        long end = 0;
+        for (Region region : kept.keySet()) {
+            data.put((int) end, old, (int) region.offset, (int) region.length());
+            region.offset = end;
+            end += region.length();
+        }
+        dataEnd = end;
+        data.force();
+
+        regionsByContent.values().removeIf(region -> !kept.containsKey(region));
+        entries.values().removeIf(entry -> !kept.containsKey(entry.region()));
+        indexOut.close();
+        writeIndex();
+        openIndexForAppend();
+        // May fail while old images are still mapped (Windows); retried at the next start.
+        Files.deleteIfExists(dataFile(oldGeneration));
+        log.info("Compacted thumbnail store", MyLogger.kv("kept", kept.size()),
+                MyLogger.kv("dropped", regions.size() - kept.size()), MyLogger.kv("bytes", keptBytes));
+    }
+
+    private void map() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(dataFile(generation).toFile(), "rw")) {
+            if (file.length() != maxBytes) {
+                file.setLength(maxBytes);
+            }
+            data = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, maxBytes);
+        }
+    }
+
+    // False if the index was only partly readable.
+    private boolean loadIndex() {
+        Path index = dir.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            return true;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                log.warn("Ignoring thumbnail index in an unknown format");
+                return false;
+            }
+            generation = in.readLong();
+            long dataLength = Files.exists(dataFile(generation)) ? Files.size(dataFile(generation)) : 0;
+            while (true) {
+                String url;
+                try {
+                    url = in.readUTF();
+                } catch (EOFException e) {
+                    return true;
+                }
+                int boxWidth = in.readInt();
+                int boxHeight = in.readInt();
+                long stamp = in.readLong();
+                long contentHash = in.readLong();
+                long offset = in.readLong();
+                int width = in.readInt();
+                int height = in.readInt();
+                long lastAccess = in.readLong();
+
+                String contentKey = contentKey(contentHash, boxWidth, boxHeight);
+                Region region = regionsByContent.get(contentKey);
+                if (region == null || region.offset != offset) {
+                    region = new Region(offset, width, height, lastAccess);
+                    if (offset + region.length() > Math.min(dataLength, maxBytes)) {
+                        continue;
+                    }
+                    regionsByContent.put(contentKey, region);
+                }
+                region.lastAccess = Math.max(region.lastAccess, lastAccess);
+                entries.put(key(url, boxWidth, boxHeight), new Entry(url, boxWidth, boxHeight, stamp, contentHash, region));
+                dataEnd = Math.max(dataEnd, offset + region.length());
+            }
+        } catch (IOException e) {
+            // A torn last record is expected after a crash; everything before it is kept.
+            log.warn("Thumbnail index read stopped early: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        Path tmp = dir.resolve(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(generation);
+            for (Entry entry : entries.values()) {
+                writeEntry(out, entry);
+            }
+        }
+        Files.move(tmp, dir.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void openIndexForAppend() throws IOException {
+        Path index = dir.resolve(INDEX_FILE);
+        if (!Files.exists(index)) {
+            writeIndex();
+        }
+        indexOut = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(index, StandardOpenOption.APPEND)));
+    }
+
+    private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        Region region = entry.region();
+        out.writeUTF(entry.url());
+        out.writeInt(entry.boxWidth());
+        out.writeInt(entry.boxHeight());
+        out.writeLong(entry.stamp());
+        out.writeLong(entry.contentHash());
+        out.writeLong(region.offset);
+        out.writeInt(region.width);
+        out.writeInt(region.height);
+        out.writeLong(region.lastAccess);
+    }
+
+    private void deleteOldGenerations() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, DATA_PREFIX + "*" + DATA_SUFFIX)) {
+            Iterator<Path> it = files.iterator();
+            while (it.hasNext()) {
+                Path file = it.next();
+                if (!file.equals(dataFile(generation))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Could not delete old thumbnail files: {}", e.getMessage());
+        }
+    }
+
+    private Path dataFile(long generation) {
+        return dir.resolve(DATA_PREFIX + generation + DATA_SUFFIX);
+    }
+
+    // Changes when a local source file is replaced; remote URLs are assumed stable.
+    private static long sourceStamp(String url) {
+        if (!url.startsWith("file:")) {
+            return 0;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(Paths.get(URI.create(url)), BasicFileAttributes.class);
+            return attributes.size() * 31 + attributes.lastModifiedTime().toMillis();
+        } catch (IOException | RuntimeException e) {
+            return UNREADABLE;
+        }
+    }
+
+    private static String key(String url, int width, int height) {
+        return width + "x" + height + " " + url;
+    }
+
+    private static String contentKey(long contentHash, int width, int height) {
+        return width + "x" + height + " " + Long.toHexString(contentHash);
+    }
+}
@@ -11,7 +11,7 @@ public class UserSession {
     private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final Preferences userPreferences;
     private static final String PREF_NODE = "com.example.app.usersession";
-    private static final MyLogger logger = new MyLogger();
+    private static final MyLogger logger = MyLogger.get("session");
     private static final Object LOCK = new Object();
 
     private String userName;
@@ -29,7 +29,7 @@ public class UserSession {
         this.loginTime = System.currentTimeMillis();
 
         saveToPreferences();
-        logger.makeLog("New user session created for: " + userName);
+        logger.info("New user session created for: {}", userName);
     }
 
     private void saveToPreferences() {
@@ -65,7 +65,7 @@ public class UserSession {
             byte[] hash = md.digest(plainPassword.getBytes());
             return Base64.getEncoder().encodeToString(hash);
         } catch (NoSuchAlgorithmException e) {
-            logger.makeLog("Password hashing failed: " + e.getMessage());
+            logger.warn("Password hashing failed: {}", e.getMessage());
             return plainPassword; // Fallback to plain password if hashing fails
         }
     }
@@ -121,7 +121,7 @@ public class UserSession {
         try {
             this.privileges = newPrivileges;
             saveToPreferences();
-            logger.makeLog("Privileges updated for user: " + userName);
+            logger.info("Privileges updated for user: {}", userName);
         } finally {
             lock.writeLock().unlock();
         }
@@ -143,7 +143,7 @@ public class UserSession {
             userPreferences.remove("LOGIN_TIME");
 
             instance = null;
-            logger.makeLog("User session cleaned");
+            logger.info("User session cleaned");
         } finally {
             lock.writeLock().unlock();
         }
@@ -166,7 +166,7 @@ public class UserSession {
             restored.password = password; // Use stored hashed password
             restored.loginTime = prefs.getLong("LOGIN_TIME", System.currentTimeMillis());
             instance = restored;
-            logger.makeLog("Session restored for user: " + userName);
+            logger.info("Session restored for user: {}", userName);
             return restored;
         }
         return null;
@@ -0,0 +1,125 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streaming RFC-4180 reader: fields may be quoted, quoted fields may contain
+// commas, line breaks and doubled quotes (""), and records end in LF, CRLF or CR.
+// This is the inverse of CsvUtils.escape.
+public class CsvReader implements Closeable {
+
+    private static final String[] EMPTY = new String[0];
+
+    private final Reader in;
+    private final char[] buffer = new char[1 << 16];
+    private int pos;
+    private int limit;
+    private long charsRead;
+    private int line = 1;
+    private int recordLine;
+
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder(64);
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // Returns the next record's fields, or null at end of input.
+    public String[] readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStart = true;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    // A CRLF inside quotes counts once, at its LF
+                    if (c == '\n' || c == '\r' && peek() != '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+                c = read();
+                continue;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields.toArray(EMPTY);
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            fieldStart = false;
+            c = read();
+        }
+    }
+
+    // Line number on which the record most recently returned by readRecord starts (1-based).
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    public long getCharsRead() {
+        return charsRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        charsRead++;
+        return buffer[pos++];
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package util;
+
+public class CsvUtils {
+
+    public static final String HEADER = "First Name,Last Name,Department,Major,Email,Image URL";
+
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Add quotes if the value contains comma, quotes or a line break
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,247 @@
+package util;
+
+// Validation for the student form. Each Field checks its value with a hand-written
+// scanner over the characters (no regex, no allocation on the valid path). A
+// FormValidator instance remembers the result per field, so on a keystroke only the
+// edited field is re-checked and the form's validity is one comparison.
+//
+//   FormValidator form = new FormValidator(Field.FIRST_NAME, Field.EMAIL);
+//   firstName.textProperty().addListener((obs, old, text) -> form.update(Field.FIRST_NAME, text));
+//   ... form.isValid(), form.getError(Field.FIRST_NAME), form.getErrors()
+//
+// The rules are the ones ValidationUtils always had: names are 2-50 letters,
+// whitespace, hyphens and apostrophes; departments 2-50 letters, whitespace,
+// hyphens and ampersands; emails local@domain.tld with a 2-6 letter tld.
+public class FormValidator {
+
+    public enum Problem {
+        NONE, MISSING, TOO_SHORT, TOO_LONG, BAD_CHARACTER, BAD_FORMAT
+    }
+
+    public enum Field {
+        FIRST_NAME("First name"),
+        LAST_NAME("Last name"),
+        EMAIL("Email"),
+        DEPARTMENT("Department"),
+        MAJOR("Major");
+
+        private final String label;
+
+        Field(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public boolean isValid(CharSequence value) {
+            return check(value) == Problem.NONE;
+        }
+
+        public Problem check(CharSequence value) {
+            if (value == null || value.length() == 0) {
+                return Problem.MISSING;
+            }
+            return switch (this) {
+                case FIRST_NAME, LAST_NAME -> checkText(value, NAME_LO, NAME_HI);
+                case DEPARTMENT -> checkText(value, DEPARTMENT_LO, DEPARTMENT_HI);
+                case EMAIL -> checkEmail(value);
+                case MAJOR -> Problem.NONE;
+            };
+        }
+
+        // A message for the user, or null if value is valid.
+        public String error(CharSequence value) {
+            Problem problem = check(value);
+            return switch (problem) {
+                case NONE -> null;
+                case MISSING -> label + " is required";
+                case TOO_SHORT, TOO_LONG -> label + " must be " + MIN_LENGTH + "-" + MAX_LENGTH + " characters";
+                case BAD_CHARACTER -> label + " can't contain '" + firstBadCharacter(value) + "'" + allowed();
+                case BAD_FORMAT -> label + " must look like name@example.com";
+            };
+        }
+
+        private String allowed() {
+            return switch (this) {
+                case FIRST_NAME, LAST_NAME -> " (use letters, spaces, hyphens and apostrophes)";
+                case DEPARTMENT -> " (use letters, spaces, hyphens and &)";
+                default -> "";
+            };
+        }
+
+        private char firstBadCharacter(CharSequence value) {
+            boolean domain = false;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                boolean ok = switch (this) {
+                    case FIRST_NAME, LAST_NAME -> in(NAME_LO, NAME_HI, c);
+                    case DEPARTMENT -> in(DEPARTMENT_LO, DEPARTMENT_HI, c);
+                    case EMAIL -> c == '@' || (domain ? in(DOMAIN_LO, DOMAIN_HI, c) : in(LOCAL_LO, LOCAL_HI, c));
+                    case MAJOR -> true;
+                };
+                if (!ok) {
+                    return c;
+                }
+                domain |= c == '@';
+            }
+            return '?';
+        }
+    }
+
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 50;
+
+    // ASCII character classes as 128-bit sets: bit c of LO (c < 64) or HI (c >= 64).
+    private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final String DIGITS = "0123456789";
+    private static final String WHITESPACE = " \t\n\u000B\f\r"; // regex \s
+    private static final long NAME_LO = lo(LETTERS + WHITESPACE + "-'");
+    private static final long NAME_HI = hi(LETTERS + WHITESPACE + "-'");
+    private static final long DEPARTMENT_LO = lo(LETTERS + WHITESPACE + "-&");
+    private static final long DEPARTMENT_HI = hi(LETTERS + WHITESPACE + "-&");
+    private static final long LOCAL_LO = lo(LETTERS + DIGITS + "._%+-");
+    private static final long LOCAL_HI = hi(LETTERS + DIGITS + "._%+-");
+    private static final long DOMAIN_LO = lo(LETTERS + DIGITS + ".-");
+    private static final long DOMAIN_HI = hi(LETTERS + DIGITS + ".-");
+    private static final long LETTERS_LO = lo(LETTERS);
+    private static final long LETTERS_HI = hi(LETTERS);
+
+    private final Field[] fields;
+    private final CharSequence[] values = new CharSequence[Field.values().length];
+    private final Problem[] problems = new Problem[Field.values().length];
+    private int invalid;
+
+    // A form made of the given fields; they start out empty, i.e. invalid.
+    public FormValidator(Field... fields) {
+        this.fields = fields.clone();
+        for (Field field : fields) {
+            problems[field.ordinal()] = Problem.MISSING;
+            invalid |= 1 << field.ordinal();
+        }
+    }
+
+    // Re-checks one field after its value changed; true if it is now valid. value is
+    // kept for getError, so pass an immutable one (a String).
+    public boolean update(Field field, CharSequence value) {
+        Problem problem = field.check(value);
+        values[field.ordinal()] = value;
+        problems[field.ordinal()] = problem;
+        if (problem == Problem.NONE) {
+            invalid &= ~(1 << field.ordinal());
+        } else {
+            invalid |= 1 << field.ordinal();
+        }
+        return problem == Problem.NONE;
+    }
+
+    public boolean isValid() {
+        return invalid == 0;
+    }
+
+    public boolean isValid(Field field) {
+        return (invalid & 1 << field.ordinal()) == 0;
+    }
+
+    public Problem getProblem(Field field) {
+        Problem problem = problems[field.ordinal()];
+        return problem == null ? Problem.NONE : problem;
+    }
+
+    // The message for field's last value, or null if it is valid.
+    public String getError(Field field) {
+        return isValid(field) ? null : field.error(values[field.ordinal()]);
+    }
+
+    // One line per invalid field, in the order the fields were given; "" if all are valid.
+    public String getErrors() {
+        if (invalid == 0) {
+            return "";
+        }
+        StringBuilder errors = new StringBuilder();
+        for (Field field : fields) {
+            if (!isValid(field)) {
+                errors.append(getError(field)).append('\n');
+            }
+        }
+        return errors.toString();
+    }
+
+    private static Problem checkText(CharSequence value, long lo, long hi) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (!in(lo, hi, value.charAt(i))) {
+                return Problem.BAD_CHARACTER;
+            }
+        }
+        if (length < MIN_LENGTH) {
+            return Problem.TOO_SHORT;
+        }
+        return length > MAX_LENGTH ? Problem.TOO_LONG : Problem.NONE;
+    }
+
+    // local@domain.tld: exactly one @, a non-empty local part, a domain with at
+    // least one character before its last dot, and a 2-6 letter tld after it.
+    private static Problem checkEmail(CharSequence value) {
+        int length = value.length();
+        int at = -1;
+        int lastDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '@') {
+                if (at >= 0) {
+                    return Problem.BAD_FORMAT;
+                }
+                at = i;
+            } else if (at < 0) {
+                if (!in(LOCAL_LO, LOCAL_HI, c)) {
+                    return Problem.BAD_CHARACTER;
+                }
+            } else {
+                if (!in(DOMAIN_LO, DOMAIN_HI, c)) {
+                    return Problem.BAD_CHARACTER;
+                }
+                if (c == '.') {
+                    lastDot = i;
+                }
+            }
+        }
+        int tld = length - lastDot - 1;
+        if (at < 1 || lastDot < at + 2 || tld < 2 || tld > 6) {
+            return Problem.BAD_FORMAT;
+        }
+        for (int i = lastDot + 1; i < length; i++) {
+            if (!in(LETTERS_LO, LETTERS_HI, value.charAt(i))) {
+                return Problem.BAD_FORMAT;
+            }
+        }
+        return Problem.NONE;
+    }
+
+    private static boolean in(long lo, long hi, char c) {
+        return c < 64 ? (lo >>> c & 1) != 0 : c < 128 && (hi >>> (c - 64) & 1) != 0;
+    }
+
+    private static long lo(String chars) {
+        long bits = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c < 64) {
+                bits |= 1L << c;
+            }
+        }
+        return bits;
+    }
+
+    private static long hi(String chars) {
+        long bits = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c >= 64 && c < 128) {
+                bits |= 1L << (c - 64);
+            }
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,273 @@
+package viewmodel;
+
+import dao.DbConnectivityClass;
+import dao.UserChanges;
+import dao.UserQuery;
+import javafx.application.Platform;
+import model.Person;
+import model.PersonColumns;
+import model.PersonRow;
+import service.MyLogger;
+
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Read-only list over the users matching a UserQuery, for tables too large to hold
+// as Person objects but small enough for a PersonColumns (see there for the
+// layout). The whole table is streamed into the column store once; after that
+// reload() only applies the changes since the last sync. Filtering and sorting
+// run in memory on the loader thread over an int[] of row indexes, and get(i)
+// hands the TableView a PersonRow view of row order[i].
+//
+// The store is only written on the JavaFX thread and only while no filter or
+// sort is reading it in the background. Only touch this list on the JavaFX thread.
+public class ColumnarPersonList extends RemotePersonList {
+
+    private static final MyLogger log = MyLogger.get("ui");
+
+    // Compact the text columns once replaced values take up this share of the store.
+    private static final double MAX_GARBAGE_RATIO = 0.25;
+
+    // Shared by every list, so a list dropped at logout leaves no thread behind; a new
+    // list's work just queues behind whatever the old one still had in flight.
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "columnar-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final DbConnectivityClass cnUtil;
+    private final int expectedRows;
+
+    private PersonColumns columns;
+    private Timestamp watermark;
+    private UserQuery query = new UserQuery();
+    // The query order was computed for, and the visible rows in that order.
+    private UserQuery orderedQuery;
+    private int[] order = new int[0];
+    // The view get() returned last
+    private PersonRow lastView;
+    // A load, delta or order computation is in flight; the store must not change meanwhile.
+    private boolean busy;
+    private boolean reloadPending;
+
+    public ColumnarPersonList(DbConnectivityClass cnUtil, int expectedRows) {
+        this.cnUtil = cnUtil;
+        this.expectedRows = expectedRows;
+    }
+
+    @Override
+    public Person get(int index) {
+        if (index < 0 || index >= order.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + order.length);
+        }
+        // Every cell of a table row asks for the row in turn; hand them all one view
+        int row = order[index];
+        PersonRow view = lastView;
+        if (view == null || view.getRow() != row || view.getColumns() != columns) {
+            view = columns.row(row);
+            lastView = view;
+        }
+        return view;
+    }
+
+    @Override
+    public int size() {
+        return order.length;
+    }
+
+    @Override
+    public UserQuery getQuery() {
+        return query;
+    }
+
+    @Override
+    public void setQuery(UserQuery query) {
+        this.query = query.copy().limit(0).offset(0).afterId(null);
+        if (columns == null) {
+            reload();
+        } else {
+            reorder();
+        }
+    }
+
+    // The first call loads the whole table; later ones fetch the changes since then.
+    @Override
+    public void reload() {
+        if (busy) {
+            reloadPending = true;
+            return;
+        }
+        busy = true;
+        PersonColumns current = columns;
+        Timestamp since = watermark;
+        UserQuery q = query;
+        LOADER.execute(() -> {
+            try {
+                UserChanges changes = current == null ? null : cnUtil.fetchChangesSince(since, new UserQuery());
+                if (changes != null && !changes.complete()) {
+                    Platform.runLater(() -> applyChanges(changes));
+                    return;
+                }
+                long start = System.nanoTime();
+                PersonColumns loaded = new PersonColumns(current == null ? expectedRows : current.liveCount());
+                Timestamp loadedAt = cnUtil.loadColumns(loaded);
+                log.info("Loaded {} users into columns", loaded.size(),
+                        MyLogger.kv("mb", loaded.estimateBytes() / (1024 * 1024)),
+                        MyLogger.kv("ms", (System.nanoTime() - start) / 1_000_000));
+                int[] rows = computeOrder(loaded, q);
+                Platform.runLater(() -> {
+                    watermark = loadedAt;
+                    install(loaded, q, rows);
+                });
+            } catch (RuntimeException e) {
+                log.warn("Failed to load users: {}", e.getMessage());
+                Platform.runLater(this::finish);
+            }
+        });
+    }
+
+    private void applyChanges(UserChanges changes) {
+        for (Person p : changes.changed()) {
+            columns.put(p);
+        }
+        for (int id : changes.deletedIds()) {
+            int row = columns.rowOf(id);
+            if (row >= 0) {
+                columns.delete(row);
+            }
+        }
+        watermark = changes.watermark();
+        if (columns.getGarbageBytes() > columns.estimateBytes() * MAX_GARBAGE_RATIO) {
+            columns.compact();
+        }
+        if (changes.changed().isEmpty() && changes.deletedIds().isEmpty()) {
+            finish();
+        } else {
+            computeInBackground(query);
+        }
+    }
+
+    private void reorder() {
+        if (!busy) {
+            busy = true;
+            computeInBackground(query);
+        }
+    }
+
+    private void computeInBackground(UserQuery q) {
+        PersonColumns current = columns;
+        LOADER.execute(() -> {
+            try {
+                int[] rows = computeOrder(current, q);
+                Platform.runLater(() -> install(current, q, rows));
+            } catch (RuntimeException e) {
+                log.warn("Failed to sort users: {}", e.getMessage());
+                Platform.runLater(this::finish);
+            }
+        });
+    }
+
+    private void install(PersonColumns loaded, UserQuery q, int[] rows) {
+        List<Person> removed = columns == null ? List.of() : view(columns, order);
+        columns = loaded;
+        orderedQuery = q;
+        order = rows;
+        beginChange();
+        if (!removed.isEmpty()) {
+            nextRemove(0, removed);
+        }
+        if (rows.length > 0) {
+            nextAdd(0, rows.length);
+        }
+        endChange();
+        finish();
+    }
+
+    // Runs whatever was asked for while the store was busy.
+    private void finish() {
+        busy = false;
+        if (reloadPending) {
+            reloadPending = false;
+            reload();
+        } else if (columns != null && orderedQuery != query) {
+            reorder();
+        }
+    }
+
+    // The live rows matching q's filters, in q's sort order (ties by id, as in MySQL's id order).
+    static int[] computeOrder(PersonColumns columns, UserQuery q) {
+        int[] rows = new int[columns.liveCount()];
+        int count = 0;
+        boolean filtered = q.hasFilters();
+        for (int row = 0; row < columns.size(); row++) {
+            if (!columns.isDeleted(row) && (!filtered || q.matches(columns.row(row)))) {
+                rows[count++] = row;
+            }
+        }
+        rows = Arrays.copyOf(rows, count);
+        PersonColumns.Column column = PersonColumns.Column.valueOf(q.getSortColumn().name());
+        int sign = q.isDescending() ? -1 : 1;
+        RowComparator comparator = (a, b) -> {
+            int c = columns.compare(column, a, b);
+            return c != 0 ? sign * c : columns.compare(PersonColumns.Column.ID, a, b);
+        };
+        // Rows are mostly appended in id order already, which the merge sort checks in linear time.
+        sort(rows, new int[rows.length], 0, rows.length, comparator);
+        return rows;
+    }
+
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    // Merge sort of rows[from, to) with tmp as scratch space; no boxing.
+    private static void sort(int[] rows, int[] tmp, int from, int to, RowComparator comparator) {
+        if (to - from < 16) {
+            for (int i = from + 1; i < to; i++) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(rows[j], row) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(rows, tmp, from, middle, comparator);
+        sort(rows, tmp, middle, to, comparator);
+        if (comparator.compare(rows[middle - 1], rows[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(rows, from, tmp, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.compare(tmp[left], tmp[right]) <= 0)) {
+                rows[i] = tmp[left++];
+            } else {
+                rows[i] = tmp[right++];
+            }
+        }
+    }
+
+    private static List<Person> view(PersonColumns columns, int[] order) {
+        return new AbstractList<>() {
+            @Override
+            public Person get(int index) {
+                return columns.row(order[index]);
+            }
+
+            @Override
+            public int size() {
+                return order.length;
+            }
+        };
+    }
+}
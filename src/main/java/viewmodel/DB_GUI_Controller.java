@@ -1,10 +1,28 @@
 package viewmodel;
 
+import dao.AsyncDao;
 import dao.DbConnectivityClass;
+import dao.UnitOfWork;
+import dao.UserChanges;
+import dao.UserQuery;
+import dao.UserSnapshot;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
-import javafx.beans.binding.Bindings;
+import javafx.beans.binding.BooleanBinding;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.css.PseudoClass;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -13,8 +31,6 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
@@ -23,15 +39,39 @@ import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
+import javafx.util.Callback;
+import javafx.util.Duration;
+import metrics.Metrics;
 import model.Person;
+import model.PersonRow;
+import service.CsvExportTask;
+import service.CsvImportTask;
+import service.ImageService;
+import service.ThumbnailStore;
 import service.MyLogger;
+import service.PersonSearchIndex;
 import service.UserSession;
+import util.FormValidator;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class DB_GUI_Controller implements Initializable {
 
@@ -40,6 +80,10 @@ public class DB_GUI_Controller implements Initializable {
     @FXML
     private ComboBox<Major> majorComboBox;
     @FXML
+    private TextField searchField, lastNameFilter, departmentFilter, emailDomainFilter;
+    @FXML
+    private ComboBox<Major> majorFilter;
+    @FXML
     private ImageView img_view;
     @FXML
     private MenuBar menuBar;
@@ -50,10 +94,18 @@ public class DB_GUI_Controller implements Initializable {
     @FXML
     private MenuItem deleteMenuItem;
     @FXML
-    private Label statusLabel;
+    private CheckMenuItem writeBehindMenuItem;
+    @FXML
+    private Label statusLabel, metricsLabel;
     @FXML
     private HBox statusBar;
     @FXML
+    private ProgressBar taskProgress;
+    @FXML
+    private Button cancelTaskBtn;
+    @FXML
+    private ProgressIndicator busyIndicator;
+    @FXML
     private TableView<Person> tv;
     @FXML
     private TableColumn<Person, Integer> tv_id;
@@ -61,63 +113,100 @@ public class DB_GUI_Controller implements Initializable {
     private TableColumn<Person, String> tv_fn, tv_ln, tv_department, tv_major, tv_email;
 
     private final DbConnectivityClass cnUtil = new DbConnectivityClass();
-    private final ObservableList<Person> data = cnUtil.getData();
-    private final MyLogger logger = new MyLogger();
-
-    // Validation patterns
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-            "^[A-Za-z0-9+_.-]+@(.+)$"
-    );
-    private static final Pattern NAME_PATTERN = Pattern.compile(
-            "^[A-Za-z\\s\\-']{2,50}$"
-    );
-    private static final Pattern DEPARTMENT_PATTERN = Pattern.compile(
-            "^[A-Za-z\\s\\-&]{2,50}$"
-    );
-
-    public enum Major {
-        COMPUTER_SCIENCE("Computer Science"),
-        CPIS("Computer Information Systems"),
-        ENGLISH("English"),
-        MATHEMATICS("Mathematics"),
-        BUSINESS("Business");
-
-        private final String displayName;
-
-        Major(String displayName) {
-            this.displayName = displayName;
-        }
-
-        @Override
-        public String toString() {
-            return displayName;
-        }
-
-        public static Major fromString(String text) {
-            for (Major m : Major.values()) {
-                if (m.displayName.equalsIgnoreCase(text)) {
-                    return m;
-                }
-            }
-            throw new IllegalArgumentException("No major with display name: " + text);
-        }
-    }
+    private final AsyncDao db = new AsyncDao(cnUtil);
+    // Database calls in flight; the UI disables writes and shows a spinner while > 0.
+    private final IntegerProperty pendingOperations = new SimpleIntegerProperty(0);
+    private final ObservableList<Person> data = FXCollections.observableArrayList();
+    // What the table shows in memory mode: data narrowed by the search field, in the table's sort order.
+    private final FilteredList<Person> filteredData = new FilteredList<>(data);
+    private final SortedList<Person> sortedData = new SortedList<>(filteredData);
+    private final PersonSearchIndex searchIndex = new PersonSearchIndex();
+    // Decoded profile images at preview size, shared across logins and persisted between runs;
+    // -Dcsc311.imageCache.bytes bounds its memory.
+    private static final ImageService images = new ImageService(
+            Long.getLong("csc311.imageCache.bytes", 32L * 1024 * 1024), ThumbnailStore.shared());
+    // URL the preview should show; a decode finishing for any other URL is ignored.
+    private String previewUrl;
+    // Set instead of loading data when the table is too large to hold in memory.
+    private RemotePersonList pagedData;
+    private static final MyLogger logger = MyLogger.get("ui");
+    // Refreshes metricsLabel while View > Show Metrics is checked.
+    private Timeline metricsTicker;
+
+    // Write-behind editing: adds and edits are staged in unitOfWork (and shown as
+    // pending) and written as one transaction every WRITE_BEHIND_FLUSH_MILLIS or on Save.
+    private static final long WRITE_BEHIND_FLUSH_MILLIS = Long.getLong("csc311.writeBehind.flushMillis", 3000);
+    private static final PseudoClass PENDING = PseudoClass.getPseudoClass("pending");
+    private final UnitOfWork unitOfWork = new UnitOfWork(cnUtil);
+    private boolean writeBehind = Boolean.getBoolean("csc311.writeBehind");
+    private Timeline flushTicker;
+
+    // Rows on each side of the selection whose images are decoded ahead of time.
+    private static final int IMAGE_PREFETCH_ROWS = 2;
+
+    // Above this many rows the table is not loaded into data but read through a RemotePersonList.
+    private static final int PAGED_MODE_THRESHOLD = 10_000;
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 50;
+    // Up to this many rows a large table is held in a column store instead of paged;
+    // -Dcsc311.columnar.maxRows=0 always pages.
+    private static final int COLUMNAR_MAX_ROWS = Integer.getInteger("csc311.columnar.maxRows", 1_000_000);
+
+    private final Map<TableColumn<Person, ?>, UserQuery.SortColumn> sortColumns = new HashMap<>();
+
+    // Query behind the loaded rows and the server time they were last synced at;
+    // refresh asks only for changes since then.
+    private UserQuery syncQuery = new UserQuery();
+    private Timestamp syncWatermark;
+
+    // Validity of the add/edit form, re-checked one field at a time as it is edited
+    private final FormValidator form = new FormValidator(FormValidator.Field.values());
+    private final BooleanProperty formValid = new SimpleBooleanProperty(false);
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         try {
-            // Initialize table columns
-            tv_id.setCellValueFactory(new PropertyValueFactory<>("id"));
-            tv_fn.setCellValueFactory(new PropertyValueFactory<>("firstName"));
-            tv_ln.setCellValueFactory(new PropertyValueFactory<>("lastName"));
-            tv_department.setCellValueFactory(new PropertyValueFactory<>("department"));
-            tv_major.setCellValueFactory(new PropertyValueFactory<>("major"));
-            tv_email.setCellValueFactory(new PropertyValueFactory<>("email"));
-            tv.setItems(data);
+            // Initialize table columns; each cell observes its Person's property directly,
+            // except for rows of the columnar store (see cellValue)
+            tv_id.setCellValueFactory(cellValue(Person::idProperty, Person::getId));
+            tv_fn.setCellValueFactory(cellValue(Person::firstNameProperty, Person::getFirstName));
+            tv_ln.setCellValueFactory(cellValue(Person::lastNameProperty, Person::getLastName));
+            tv_department.setCellValueFactory(cellValue(Person::departmentProperty, Person::getDepartment));
+            tv_major.setCellValueFactory(cellValue(Person::majorProperty, Person::getMajor));
+            tv_email.setCellValueFactory(cellValue(Person::emailProperty, Person::getEmail));
+
+            sortColumns.put(tv_id, UserQuery.SortColumn.ID);
+            sortColumns.put(tv_fn, UserQuery.SortColumn.FIRST_NAME);
+            sortColumns.put(tv_ln, UserQuery.SortColumn.LAST_NAME);
+            sortColumns.put(tv_department, UserQuery.SortColumn.DEPARTMENT);
+            sortColumns.put(tv_major, UserQuery.SortColumn.MAJOR);
+            sortColumns.put(tv_email, UserQuery.SortColumn.EMAIL);
 
             // Initialize major ComboBox
             majorComboBox.setItems(FXCollections.observableArrayList(Major.values()));
             majorComboBox.getSelectionModel().selectFirst();
+            majorFilter.setItems(FXCollections.observableArrayList(Major.values()));
+
+            // Several rows can be selected for deletion; edit works on the focused one
+            tv.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+            // Rows with unsaved write-behind changes are styled as :pending
+            tv.setRowFactory(table -> new TableRow<>() {
+                @Override
+                protected void updateItem(Person p, boolean empty) {
+                    super.updateItem(p, empty);
+                    pseudoClassStateChanged(PENDING, !empty && p != null && unitOfWork.isPending(p));
+                }
+            });
+            writeBehindMenuItem.setSelected(writeBehind);
+            setWriteBehind(writeBehind);
+
+            setupSearch();
+            // Whatever is on screen at exit (including this session's own edits) is saved
+            // with the last sync's watermark; the next sync re-fetches anything newer.
+            UserSnapshot.setExitSource(() -> isPaged() || syncQuery.hasFilters() || syncWatermark == null
+                    || data.size() > PAGED_MODE_THRESHOLD ? null : new UserSnapshot.Snapshot(new ArrayList<>(data), syncWatermark));
+
+            loadTable();
 
             // Setup UI bindings
             setupUIBindings();
@@ -132,43 +221,282 @@ public class DB_GUI_Controller implements Initializable {
 
         } catch (Exception e) {
             showError("Initialization Error", e.getMessage());
-            logger.makeLog("Initialization failed: " + e.getMessage());
+            logger.error("Initialization failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void loadTable() {
+        // Show last session's rows straight away and catch up with whatever changed since.
+        // A table that has outgrown memory is counted again and shown paged instead.
+        UserSnapshot.Snapshot snapshot = UserSnapshot.load(PAGED_MODE_THRESHOLD);
+        if (snapshot != null) {
+            UserQuery q = buildQuery();
+            applyChanges(q, new UserChanges(snapshot.rows(), List.of(), snapshot.watermark(), true));
+            tv.setItems(sortedData);
+            showStatus(String.format("Showing %d saved records, syncing...", data.size()));
+            refreshTable();
+            return;
+        }
+        whenDone("fx.countTable", db.countUsers(new UserQuery()), "Load Error", total -> {
+            if (total > PAGED_MODE_THRESHOLD) {
+                usePagedMode(total);
+            } else {
+                UserQuery q = buildQuery();
+                whenDone("fx.loadTable", db.loadUsers(q), "Load Error", changes -> applyChanges(q, changes));
+                tv.setItems(sortedData);
+            }
+        });
+    }
+
+    private void usePagedMode(int total) {
+        boolean columnar = total <= COLUMNAR_MAX_ROWS;
+        pagedData = columnar ? new ColumnarPersonList(cnUtil, total) : new PagedPersonList(cnUtil, PAGE_SIZE, MAX_CACHED_PAGES);
+        pagedData.setQuery(buildQuery());
+        // The list is read-only and sorts by itself (in memory or in MySQL).
+        tv.setSortPolicy(table -> {
+            UserQuery q = buildQuery();
+            UserQuery current = pagedData.getQuery();
+            if (q.getSortColumn() != current.getSortColumn() || q.isDescending() != current.isDescending()) {
+                pagedData.setQuery(q);
+            }
+            return true;
+        });
+        tv.setItems(pagedData);
+        // The rows aren't in data, so the search index can't cover them; the filters can.
+        searchField.setDisable(true);
+        searchField.setPromptText("Search is unavailable for large tables; use the filters below");
+        logger.info(columnar ? "Large table: loading rows into a column store" : "Large table: loading rows page by page");
+        StartupOrchestrator.mark("first rows loaded");
+    }
+
+    // The filter bar and the table's primary sort column as a server-side query.
+    private UserQuery buildQuery() {
+        UserQuery q = new UserQuery()
+                .lastNamePrefix(lastNameFilter.getText())
+                .major(majorFilter.getValue() == null ? null : majorFilter.getValue().toString())
+                .department(departmentFilter.getText())
+                .emailDomain(emailDomainFilter.getText());
+        if (!tv.getSortOrder().isEmpty()) {
+            TableColumn<Person, ?> column = tv.getSortOrder().get(0);
+            q.sortBy(sortColumns.get(column), column.getSortType() == TableColumn.SortType.DESCENDING);
+        }
+        return q;
+    }
+
+    @FXML
+    protected void applyFilter() {
+        UserQuery q = buildQuery();
+        if (isPaged()) {
+            pagedData.setQuery(q);
+            logger.info("Filter applied: {}", q);
+        } else {
+            whenDone("fx.applyFilter", db.loadUsers(q), "Filter Error", changes -> {
+                applyChanges(q, changes);
+                showStatus(String.format("%d matching records", data.size()));
+                logger.info("Filter applied: {}", q);
+            });
+        }
+    }
+
+    // Keeps the search index in step with data, however it changes (load, sync, add,
+    // edit, delete, import), and narrows the table on every keystroke.
+    private void setupSearch() {
+        sortedData.comparatorProperty().bind(tv.comparatorProperty());
+        data.addListener((ListChangeListener<Person>) c -> {
+            while (c.next()) {
+                for (Person p : c.getRemoved()) {
+                    if (p.getId() != null) {
+                        searchIndex.remove(p.getId());
+                    }
+                }
+                for (Person p : c.getAddedSubList()) {
+                    searchIndex.add(p);
+                }
+            }
+            if (!searchField.getText().isBlank()) {
+                applySearch(searchField.getText());
+            }
+        });
+        searchField.textProperty().addListener((obs, oldText, text) -> applySearch(text));
+    }
+
+    private void applySearch(String text) {
+        BitSet matches = searchIndex.search(text);
+        if (matches == null) {
+            filteredData.setPredicate(null);
+        } else {
+            filteredData.setPredicate(p -> p.getId() == null
+                    ? PersonSearchIndex.matches(p, text)
+                    : matches.get(p.getId()));
         }
     }
 
+    @FXML
+    protected void clearFilter() {
+        searchField.clear();
+        lastNameFilter.clear();
+        departmentFilter.clear();
+        emailDomainFilter.clear();
+        majorFilter.setValue(null);
+        applyFilter();
+    }
+
+    // Brings data up to date with a sync result. A complete result replaces the rows;
+    // a delta patches them in place, so unchanged rows (and the selection) are left alone.
+    private void applyChanges(UserQuery q, UserChanges changes) {
+        syncQuery = q;
+        syncWatermark = changes.watermark();
+        if (changes.complete()) {
+            data.setAll(changes.changed());
+        } else {
+            patchRows(q, changes);
+        }
+        if (!q.hasFilters() && data.size() <= PAGED_MODE_THRESHOLD) {
+            UserSnapshot.saveAsync(data, syncWatermark);
+        }
+        StartupOrchestrator.mark("first rows loaded");
+    }
+
+    private void patchRows(UserQuery q, UserChanges changes) {
+
+        Map<Integer, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < data.size(); i++) {
+            indexById.put(data.get(i).getId(), i);
+        }
+        Set<Integer> removed = new HashSet<>(changes.deletedIds());
+        List<Person> added = new ArrayList<>();
+        for (Person p : changes.changed()) {
+            Integer index = indexById.get(p.getId());
+            if (!q.matches(p)) {
+                // Edited so it no longer matches the active filter
+                if (index != null) {
+                    removed.add(p.getId());
+                }
+            } else if (index == null) {
+                added.add(p);
+            } else if (!sameRow(data.get(index), p)) {
+                data.set(index, p);
+            }
+        }
+        if (!removed.isEmpty()) {
+            data.removeIf(p -> removed.contains(p.getId()));
+        }
+        data.addAll(added);
+    }
+
+    private static boolean sameRow(Person a, Person b) {
+        return Objects.equals(a.getId(), b.getId())
+                && Objects.equals(a.getFirstName(), b.getFirstName())
+                && Objects.equals(a.getLastName(), b.getLastName())
+                && Objects.equals(a.getDepartment(), b.getDepartment())
+                && Objects.equals(a.getMajor(), b.getMajor())
+                && Objects.equals(a.getEmail(), b.getEmail())
+                && Objects.equals(a.getImageURL(), b.getImageURL());
+    }
+
+    // A column's cell values: the Person's own property, or for a columnar row (whose
+    // properties would be new detached copies each time) a constant read of the getter.
+    private static <T> Callback<TableColumn.CellDataFeatures<Person, T>, ObservableValue<T>> cellValue(
+            Function<Person, ObservableValue<T>> property, Function<Person, T> getter) {
+        return cell -> cell.getValue() instanceof PersonRow row
+                ? new PersonRow.Value<>(getter.apply(row)) : property.apply(cell.getValue());
+    }
+
+    private boolean isPaged() {
+        return pagedData != null;
+    }
+
     private void setupUIBindings() {
+        // Writes are disabled while a database call is in flight, and a spinner shows it
+        BooleanBinding busy = pendingOperations.greaterThan(0);
+        busyIndicator.visibleProperty().bind(busy);
+        busyIndicator.managedProperty().bind(busy);
+
+        // Preview the selected row's image, whether it was picked by mouse or keyboard
+        tv.getSelectionModel().selectedIndexProperty().addListener((obs, oldIndex, index) -> previewRow(index.intValue()));
+
         // Bind button and menu item states to table selection
-        editBtn.disableProperty().bind(tv.getSelectionModel().selectedItemProperty().isNull());
-        deleteBtn.disableProperty().bind(tv.getSelectionModel().selectedItemProperty().isNull());
-        editMenuItem.disableProperty().bind(tv.getSelectionModel().selectedItemProperty().isNull());
-        deleteMenuItem.disableProperty().bind(tv.getSelectionModel().selectedItemProperty().isNull());
+        BooleanBinding noSelection = tv.getSelectionModel().selectedItemProperty().isNull();
+        editBtn.disableProperty().bind(noSelection.or(busy));
+        deleteBtn.disableProperty().bind(noSelection.or(busy));
+        editMenuItem.disableProperty().bind(noSelection.or(busy));
+        deleteMenuItem.disableProperty().bind(noSelection.or(busy));
 
         // Bind Add button state to form validation
-        addBtn.disableProperty().bind(
-                Bindings.createBooleanBinding(
-                        () -> !isValidInput(),
-                        first_name.textProperty(),
-                        last_name.textProperty(),
-                        email.textProperty(),
-                        department.textProperty(),
-                        majorComboBox.valueProperty()
-                )
-        );
+        watch(first_name, FormValidator.Field.FIRST_NAME);
+        watch(last_name, FormValidator.Field.LAST_NAME);
+        watch(email, FormValidator.Field.EMAIL);
+        watch(department, FormValidator.Field.DEPARTMENT);
+        validate(FormValidator.Field.MAJOR, majorComboBox.getValue() == null ? null : majorComboBox.getValue().toString());
+        majorComboBox.valueProperty().addListener((obs, oldMajor, major) ->
+                validate(FormValidator.Field.MAJOR, major == null ? null : major.toString()));
+        addBtn.disableProperty().bind(formValid.not().or(busy));
+    }
+
+    // Validates field now and again whenever it is edited; its tooltip shows what is wrong.
+    private void watch(TextField field, FormValidator.Field rule) {
+        Tooltip hint = new Tooltip();
+        validate(field, rule, hint, field.getText());
+        field.textProperty().addListener((obs, oldText, text) -> validate(field, rule, hint, text));
+    }
+
+    private void validate(TextField field, FormValidator.Field rule, Tooltip hint, String text) {
+        boolean wasValid = form.isValid(rule);
+        validate(rule, text);
+        if (!form.isValid(rule)) {
+            hint.setText(form.getError(rule));
+            field.setTooltip(hint);
+        } else if (!wasValid) {
+            field.setTooltip(null);
+        }
+    }
+
+    private void validate(FormValidator.Field rule, String value) {
+        form.update(rule, value);
+        formValid.set(form.isValid());
+    }
+
+    // The one place database results come back to the JavaFX thread: runs onSuccess
+    // there with the result, or reports the failure under errorTitle. The time from the
+    // call to the table being updated is recorded under the metric name action.
+    private <T> void whenDone(String action, CompletableFuture<T> future, String errorTitle, Consumer<T> onSuccess) {
+        long start = System.nanoTime();
+        pendingOperations.set(pendingOperations.get() + 1);
+        future.whenCompleteAsync((result, error) -> {
+            pendingOperations.set(pendingOperations.get() - 1);
+            if (error == null) {
+                try {
+                    onSuccess.accept(result);
+                } catch (RuntimeException e) {
+                    showError(errorTitle, e.getMessage());
+                    logger.error("{}: {}", errorTitle, e.getMessage(), e);
+                    return;
+                }
+                Metrics.timer(action).recordSince(start);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            showError(errorTitle, cause.getMessage());
+            logger.warn("{}: {}", errorTitle, cause.getMessage());
+        }, Platform::runLater);
     }
 
     private boolean isValidInput() {
-        return NAME_PATTERN.matcher(first_name.getText()).matches() &&
-                NAME_PATTERN.matcher(last_name.getText()).matches() &&
-                EMAIL_PATTERN.matcher(email.getText()).matches() &&
-                DEPARTMENT_PATTERN.matcher(department.getText()).matches() &&
-                majorComboBox.getValue() != null;
+        return form.isValid();
     }
 
     @FXML
     protected void addNewRecord() {
         try {
             if (!isValidInput()) {
-                showError("Invalid Input", "Please check the form fields for errors.");
+                showError("Invalid Input", form.getErrors());
+                return;
+            }
+
+            // Known duplicates are rejected from memory instead of failing at the UNIQUE constraint.
+            if (DbConnectivityClass.getCache().getByEmail(email.getText()) != null
+                    || unitOfWork.hasPendingEmail(email.getText(), null)) {
+                showError("Duplicate Email", "A record with this email already exists.");
                 return;
             }
 
@@ -181,16 +509,28 @@ public class DB_GUI_Controller implements Initializable {
                     imageURL.getText()
             );
 
-            cnUtil.insertUser(p);
-            p.setId(cnUtil.retrieveId(p));
-            data.add(p);
-            clearForm();
-            showStatus("Record added successfully!");
-            logger.makeLog("New record added: " + p);
+            if (isWriteBehind()) {
+                unitOfWork.stageInsert(p);
+                data.add(p);
+                clearForm();
+                showPending();
+                return;
+            }
+
+            whenDone("fx.addRecord", db.insertUser(p), "Add Record Error", id -> {
+                if (isPaged()) {
+                    pagedData.reload();
+                } else {
+                    data.add(p);
+                }
+                clearForm();
+                showStatus("Record added successfully!");
+                logger.info("New record added: {}", p);
+            });
 
         } catch (Exception e) {
             showError("Add Record Error", e.getMessage());
-            logger.makeLog("Failed to add record: " + e.getMessage());
+            logger.warn("Failed to add record: {}", e.getMessage());
         }
     }
 
@@ -198,12 +538,12 @@ public class DB_GUI_Controller implements Initializable {
     protected void editRecord() {
         try {
             if (!isValidInput()) {
-                showError("Invalid Input", "Please check the form fields for errors.");
+                showError("Invalid Input", form.getErrors());
                 return;
             }
 
             Person selectedPerson = tv.getSelectionModel().getSelectedItem();
-            if (selectedPerson == null) {
+            if (selectedPerson == null || selectedPerson == PagedPersonList.PLACEHOLDER) {
                 showError("Selection Error", "Please select a record to edit.");
                 return;
             }
@@ -217,46 +557,99 @@ public class DB_GUI_Controller implements Initializable {
                     imageURL.getText()
             );
 
-            cnUtil.editUser(selectedPerson.getId(), updatedPerson);
-
-            int index = data.indexOf(selectedPerson);
             updatedPerson.setId(selectedPerson.getId());
-            data.set(index, updatedPerson);
-
-            showStatus("Record updated successfully!");
-            logger.makeLog("Record updated: " + updatedPerson);
+            if (isWriteBehind()) {
+                Person owner = DbConnectivityClass.getCache().getByEmail(updatedPerson.getEmail());
+                if ((owner != null && !owner.getId().equals(selectedPerson.getId()))
+                        || unitOfWork.hasPendingEmail(updatedPerson.getEmail(), selectedPerson)) {
+                    showError("Duplicate Email", "A record with this email already exists.");
+                    return;
+                }
+                unitOfWork.stageUpdate(selectedPerson, updatedPerson);
+                int index = data.indexOf(selectedPerson);
+                if (index >= 0) {
+                    data.set(index, updatedPerson);
+                }
+                showPending();
+                return;
+            }
+            whenDone("fx.editRecord", db.editUser(selectedPerson.getId(), updatedPerson), "Edit Record Error", done -> {
+                if (isPaged()) {
+                    pagedData.reload();
+                } else {
+                    int index = data.indexOf(selectedPerson);
+                    if (index >= 0) {
+                        data.set(index, updatedPerson);
+                    }
+                }
+                showStatus("Record updated successfully!");
+                logger.info("Record updated: {}", updatedPerson);
+            });
 
         } catch (Exception e) {
             showError("Edit Record Error", e.getMessage());
-            logger.makeLog("Failed to edit record: " + e.getMessage());
+            logger.warn("Failed to edit record: {}", e.getMessage());
         }
     }
 
     @FXML
     protected void deleteRecord() {
         try {
-            Person selectedPerson = tv.getSelectionModel().getSelectedItem();
-            if (selectedPerson == null) {
+            List<Person> selected = new ArrayList<>();
+            for (Person p : tv.getSelectionModel().getSelectedItems()) {
+                if (p != null && p != PagedPersonList.PLACEHOLDER) {
+                    selected.add(p);
+                }
+            }
+            if (selected.isEmpty()) {
                 showError("Selection Error", "Please select a record to delete.");
                 return;
             }
 
             Alert confirmation = new Alert(Alert.AlertType.CONFIRMATION);
             confirmation.setTitle("Delete Confirmation");
-            confirmation.setHeaderText("Delete Record");
-            confirmation.setContentText("Are you sure you want to delete this record?");
+            confirmation.setHeaderText(selected.size() == 1 ? "Delete Record" : "Delete Records");
+            confirmation.setContentText(selected.size() == 1
+                    ? "Are you sure you want to delete this record?"
+                    : String.format("Are you sure you want to delete these %d records?", selected.size()));
 
             Optional<ButtonType> result = confirmation.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
-                cnUtil.deleteRecord(selectedPerson);
-                data.remove(selectedPerson);
-                clearForm();
-                showStatus("Record deleted successfully!");
-                logger.makeLog("Record deleted: " + selectedPerson);
+                List<Integer> ids = new ArrayList<>(selected.size());
+                for (Person p : selected) {
+                    if (p.getId() == null && !unitOfWork.isPending(p)) {
+                        showError("Delete Record Error", "A new record is still being saved; try again in a moment.");
+                        return;
+                    }
+                    unitOfWork.discard(p);
+                    if (p.getId() != null) {
+                        ids.add(p.getId());
+                    }
+                }
+                if (ids.isEmpty()) {
+                    // Only unsaved new rows: nothing to tell the database
+                    data.removeAll(new HashSet<>(selected));
+                    clearForm();
+                    showPending();
+                    return;
+                }
+                whenDone("fx.deleteRecord", db.deleteRecords(ids), "Delete Record Error", deleted -> {
+                    if (isPaged()) {
+                        pagedData.reload();
+                    } else {
+                        // One change event for the whole selection
+                        data.removeAll(new HashSet<>(selected));
+                    }
+                    clearForm();
+                    showStatus(selected.size() == 1
+                            ? "Record deleted successfully!"
+                            : String.format("%d records deleted successfully!", deleted));
+                    logger.info("Records deleted: {}", selected.size() == 1 ? selected.get(0) : ids.size() + " rows");
+                });
             }
         } catch (Exception e) {
             showError("Delete Record Error", e.getMessage());
-            logger.makeLog("Failed to delete record: " + e.getMessage());
+            logger.warn("Failed to delete record: {}", e.getMessage());
         }
     }
 
@@ -281,38 +674,32 @@ public class DB_GUI_Controller implements Initializable {
         if (currentWindow != null) {
             File file = fileChooser.showOpenDialog(currentWindow);
             if (file != null) {
-                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                    String line;
-                    int importCount = 0;
-                    reader.readLine(); // Skip header
-
-                    while ((line = reader.readLine()) != null) {
-                        String[] fields = line.split(",");
-                        if (fields.length >= 6) {
-                            Person p = new Person(
-                                    fields[0].trim(),
-                                    fields[1].trim(),
-                                    fields[2].trim(),
-                                    fields[3].trim(),
-                                    fields[4].trim(),
-                                    fields[5].trim()
-                            );
-                            cnUtil.insertUser(p);
-                            p.setId(cnUtil.retrieveId(p));
-                            data.add(p);
-                            importCount++;
-                        }
+                CsvImportTask task = new CsvImportTask(file, cnUtil, CsvImportTask.DEFAULT_BATCH_SIZE, this::mergeRows);
+                task.setOnSucceeded(e -> {
+                    if (task.getRejected() > 0 && task.getReportFile() == null) {
+                        showStatus(String.format("Imported %d records; %d rejected (no report could be written)",
+                                task.getValue(), task.getRejected()));
+                    } else if (task.getRejected() > 0) {
+                        showStatus(String.format("Imported %d records; %d rejected, see %s",
+                                task.getValue(), task.getRejected(), task.getReportFile().getName()));
+                    } else {
+                        showStatus(String.format("Successfully imported %d records!", task.getValue()));
                     }
-                    showStatus(String.format("Successfully imported %d records!", importCount));
-                    logger.makeLog("CSV import completed: " + importCount + " records");
-                } catch (IOException e) {
-                    showError("Import Error", "Failed to import CSV file: " + e.getMessage());
-                    logger.makeLog("CSV import failed: " + e.getMessage());
-                }
+                    logger.info("CSV import completed: {} records, {} rejected", task.getValue(), task.getRejected());
+                });
+                task.setOnFailed(e -> {
+                    showError("Import Error", "Failed to import CSV file: " + task.getException().getMessage());
+                    logger.warn("CSV import failed: {}", task.getException().getMessage());
+                });
+                task.setOnCancelled(e -> {
+                    showStatus("CSV import cancelled");
+                    logger.info("CSV import cancelled");
+                });
+                runInBackground(task, "csv-import");
             }
         } else {
             showError("Import Error", "Unable to determine current window");
-            logger.makeLog("CSV import failed: Could not determine current window");
+            logger.warn("CSV import failed: Could not determine current window");
         }
     }
 
@@ -338,43 +725,71 @@ public class DB_GUI_Controller implements Initializable {
         if (currentWindow != null) {
             File file = fileChooser.showSaveDialog(currentWindow);
             if (file != null) {
-                try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-                    // Write header
-                    writer.println("First Name,Last Name,Department,Major,Email,Image URL");
-
-                    // Write data
-                    for (Person p : data) {
-                        writer.println(String.format("%s,%s,%s,%s,%s,%s",
-                                escapeCSV(p.getFirstName()),
-                                escapeCSV(p.getLastName()),
-                                escapeCSV(p.getDepartment()),
-                                escapeCSV(p.getMajor()),
-                                escapeCSV(p.getEmail()),
-                                escapeCSV(p.getImageURL())
-                        ));
-                    }
-                    showStatus("Data exported successfully!");
-                    logger.makeLog("CSV export completed: " + data.size() + " records");
-                } catch (IOException e) {
-                    showError("Export Error", "Failed to export CSV file: " + e.getMessage());
-                    logger.makeLog("CSV export failed: " + e.getMessage());
-                }
+                CsvExportTask task = new CsvExportTask(file, cnUtil);
+                task.setOnSucceeded(e -> {
+                    showStatus(String.format("Exported %d records successfully!", task.getValue()));
+                    logger.info("CSV export completed: {} records", task.getValue());
+                });
+                task.setOnFailed(e -> {
+                    showError("Export Error", "Failed to export CSV file: " + task.getException().getMessage());
+                    logger.warn("CSV export failed: {}", task.getException().getMessage());
+                });
+                task.setOnCancelled(e -> {
+                    showStatus("CSV export cancelled");
+                    logger.info("CSV export cancelled");
+                });
+                runInBackground(task, "csv-export");
             }
         } else {
             showError("Export Error", "Unable to determine current window");
-            logger.makeLog("CSV export failed: Could not determine current window");
+            logger.warn("CSV export failed: Could not determine current window");
         }
     }
 
-    private String escapeCSV(String value) {
-        if (value == null) {
-            return "";
+    // Applies rows written by an import: rows whose id is already in the table are
+    // replaced in place (an upsert hit an existing email), the rest are appended.
+    private void mergeRows(List<Person> rows) {
+        if (isPaged()) {
+            pagedData.reload();
+            return;
         }
-        // Add quotes if the value contains comma or quotes
-        if (value.contains(",") || value.contains("\"")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+        Map<Integer, Person> byId = new LinkedHashMap<>();
+        for (Person p : rows) {
+            byId.put(p.getId(), p);
         }
-        return value;
+        for (int i = 0; i < data.size() && !byId.isEmpty(); i++) {
+            Person replacement = byId.remove(data.get(i).getId());
+            if (replacement != null) {
+                data.set(i, replacement);
+            }
+        }
+        data.addAll(byId.values());
+    }
+
+    // Runs a task on a daemon thread, showing its progress and message in the status
+    // bar and offering a cancel button until it finishes.
+    private void runInBackground(Task<?> task, String threadName) {
+        taskProgress.progressProperty().bind(task.progressProperty());
+        cancelTaskBtn.setOnAction(e -> task.cancel());
+        task.messageProperty().addListener((obs, oldMessage, message) -> statusLabel.setText(message));
+        setTaskControlsVisible(true);
+        task.runningProperty().addListener((obs, wasRunning, running) -> {
+            if (!running) {
+                taskProgress.progressProperty().unbind();
+                setTaskControlsVisible(false);
+            }
+        });
+
+        Thread thread = new Thread(task, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void setTaskControlsVisible(boolean visible) {
+        taskProgress.setVisible(visible);
+        taskProgress.setManaged(visible);
+        cancelTaskBtn.setVisible(visible);
+        cancelTaskBtn.setManaged(visible);
     }
 
     @FXML
@@ -391,13 +806,19 @@ public class DB_GUI_Controller implements Initializable {
     @FXML
     protected void selectedItemTV(MouseEvent mouseEvent) {
         Person p = tv.getSelectionModel().getSelectedItem();
-        if (p != null) {
+        if (p != null && p != PagedPersonList.PLACEHOLDER) {
             first_name.setText(p.getFirstName());
             last_name.setText(p.getLastName());
             department.setText(p.getDepartment());
             email.setText(p.getEmail());
             imageURL.setText(p.getImageURL());
-            majorComboBox.setValue(Major.fromString(p.getMajor()));
+            // A major outside the list leaves the box empty, so the form can't be saved
+            // until one is picked, rather than silently keeping a different major.
+            Major major = Major.find(p.getMajor());
+            majorComboBox.setValue(major);
+            if (major == null && p.getMajor() != null) {
+                showStatus(String.format("Major \"%s\" is not in the list; pick one before saving", p.getMajor()));
+            }
         }
     }
 
@@ -411,19 +832,65 @@ public class DB_GUI_Controller implements Initializable {
 
         File file = fileChooser.showOpenDialog(img_view.getScene().getWindow());
         if (file != null) {
-            try {
-                Image image = new Image(file.toURI().toString());
-                img_view.setImage(image);
-                imageURL.setText(file.toURI().toString());
-            } catch (Exception e) {
-                showError("Image Error", "Failed to load image: " + e.getMessage());
+            imageURL.setText(file.toURI().toString());
+            showPreview(file.toURI().toString(), true);
+        }
+    }
+
+    // Shows the image of the row at index and starts decoding its neighbours' images,
+    // so stepping through the table finds them already in the cache.
+    private void previewRow(int index) {
+        List<Person> items = tv.getItems();
+        if (index < 0 || index >= items.size() || items.get(index) == PagedPersonList.PLACEHOLDER) {
+            showPreview(null, false);
+            return;
+        }
+        showPreview(items.get(index).getImageURL(), false);
+        for (int i = Math.max(0, index - IMAGE_PREFETCH_ROWS); i <= Math.min(items.size() - 1, index + IMAGE_PREFETCH_ROWS); i++) {
+            Person neighbour = items.get(i);
+            if (i != index && neighbour != PagedPersonList.PLACEHOLDER) {
+                images.prefetch(neighbour.getImageURL(), img_view.getFitWidth(), img_view.getFitHeight());
             }
         }
     }
 
+    private void showPreview(String url, boolean reportErrors) {
+        previewUrl = url;
+        if (url == null || url.isBlank()) {
+            img_view.setImage(null);
+            return;
+        }
+        images.load(url, img_view.getFitWidth(), img_view.getFitHeight()).whenCompleteAsync((image, error) -> {
+            if (!url.equals(previewUrl)) {
+                return;
+            }
+            img_view.setImage(error == null ? image : null);
+            if (error != null && reportErrors) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                showError("Image Error", "Failed to load image: " + cause.getMessage());
+            }
+        }, Platform::runLater);
+    }
+
     @FXML
     protected void logOut(ActionEvent actionEvent) {
         try {
+            if (flushTicker != null) {
+                flushTicker.stop();
+            }
+            // Waits for a flush in flight and writes the rest now, so closing loses nothing
+            try {
+                unitOfWork.commit();
+            } catch (RuntimeException e) {
+                showError("Save Error", String.format("Could not save %d unsaved change%s: %s",
+                        unitOfWork.size(), unitOfWork.size() == 1 ? "" : "s", e.getMessage()));
+                logger.error("Could not save {} pending changes on logout: {}", unitOfWork.size(), e.getMessage(), e);
+                if (writeBehind) {
+                    flushTicker.play();
+                }
+                return;
+            }
+            unitOfWork.close();
             UserSession.getInstance("", "").cleanUserSession();
             Parent root = FXMLLoader.load(getClass().getResource("/view/login.fxml"));
             Scene scene = new Scene(root, 900, 600);
@@ -431,10 +898,96 @@ public class DB_GUI_Controller implements Initializable {
             Stage window = (Stage) menuBar.getScene().getWindow();
             window.setScene(scene);
             window.show();
-            logger.makeLog("User logged out");
+            logger.info("User logged out");
         } catch (Exception e) {
             showError("Logout Error", e.getMessage());
-            logger.makeLog("Logout failed: " + e.getMessage());
+            logger.warn("Logout failed: {}", e.getMessage());
+        }
+    }
+
+    @FXML
+    protected void toggleWriteBehind(ActionEvent actionEvent) {
+        setWriteBehind(((CheckMenuItem) actionEvent.getSource()).isSelected());
+    }
+
+    private void setWriteBehind(boolean enabled) {
+        writeBehind = enabled;
+        if (flushTicker == null) {
+            flushTicker = new Timeline(new KeyFrame(Duration.millis(WRITE_BEHIND_FLUSH_MILLIS), e -> flushPending()));
+            flushTicker.setCycleCount(Timeline.INDEFINITE);
+        }
+        if (enabled) {
+            flushTicker.play();
+        } else {
+            flushTicker.stop();
+            flushPending();
+        }
+        logger.info("Write-behind editing {}", enabled ? "on" : "off");
+    }
+
+    // Paged tables are re-read from the database page by page, so they always write through.
+    private boolean isWriteBehind() {
+        return writeBehind && !isPaged();
+    }
+
+    // Writes the staged changes as one transaction. After a failure they stay staged (and
+    // shown as pending) and automatic flushes pause, so the offending row can be fixed or
+    // deleted before the next Save.
+    @FXML
+    protected void flushPending() {
+        if (unitOfWork.isWriting() || unitOfWork.size() == 0) {
+            return;
+        }
+        UnitOfWork.Batch batch = unitOfWork.drain();
+        CompletableFuture<Void> write = db.applyBatch(batch.inserts(), batch.updates());
+        unitOfWork.writing(batch, write);
+        write.whenCompleteAsync((done, error) -> {
+            if (!unitOfWork.settle(write, error)) {
+                return;
+            }
+            if (error != null) {
+                flushTicker.stop();
+                showPending();
+            } else if (writeBehind) {
+                flushTicker.play();
+            }
+        }, Platform::runLater);
+        whenDone("fx.flushPending", write, "Save Error", done -> {
+            // Swap each staged row for its committed copy, unless it has been edited again meanwhile
+            for (int i = 0; i < batch.size(); i++) {
+                int index = data.indexOf(batch.staged().get(i));
+                if (index >= 0) {
+                    data.set(index, batch.rows().get(i));
+                }
+            }
+            showStatus(String.format("Saved %d change%s", batch.size(), batch.size() == 1 ? "" : "s"));
+            logger.info("Write-behind flush committed", MyLogger.kv("inserts", batch.insertCount()),
+                    MyLogger.kv("updates", batch.size() - batch.insertCount()));
+        });
+    }
+
+    private void showPending() {
+        int pending = unitOfWork.size();
+        boolean paused = flushTicker.getStatus() != Animation.Status.RUNNING;
+        showStatus(pending == 0 ? "No unsaved changes"
+                : String.format("%d unsaved change%s (%s)", pending, pending == 1 ? "" : "s",
+                paused ? "not saved yet, press Save to retry" : "saving shortly"));
+    }
+
+    @FXML
+    protected void toggleMetrics(ActionEvent actionEvent) {
+        boolean show = ((CheckMenuItem) actionEvent.getSource()).isSelected();
+        metricsLabel.setVisible(show);
+        metricsLabel.setManaged(show);
+        if (metricsTicker == null) {
+            metricsTicker = new Timeline(new KeyFrame(Duration.seconds(2), e -> metricsLabel.setText(Metrics.summary())));
+            metricsTicker.setCycleCount(Timeline.INDEFINITE);
+        }
+        if (show) {
+            metricsLabel.setText(Metrics.summary());
+            metricsTicker.play();
+        } else {
+            metricsTicker.stop();
         }
     }
 
@@ -485,7 +1038,7 @@ public class DB_GUI_Controller implements Initializable {
             }
         } catch (Exception e) {
             showError("Theme Error", "Failed to apply light theme: " + e.getMessage());
-            logger.makeLog("Theme change failed: " + e.getMessage());
+            logger.warn("Theme change failed: {}", e.getMessage());
         }
     }
 
@@ -507,7 +1060,7 @@ public class DB_GUI_Controller implements Initializable {
             }
         } catch (Exception e) {
             showError("Theme Error", "Failed to apply dark theme: " + e.getMessage());
-            logger.makeLog("Theme change failed: " + e.getMessage());
+            logger.warn("Theme change failed: {}", e.getMessage());
         }
     }
 
@@ -544,7 +1097,7 @@ public class DB_GUI_Controller implements Initializable {
             stage.showAndWait();
         } catch (Exception e) {
             showError("Display Error", "Failed to show About window: " + e.getMessage());
-            logger.makeLog("Failed to show About window: " + e.getMessage());
+            logger.warn("Failed to show About window: {}", e.getMessage());
         }
     }
 
@@ -578,14 +1131,13 @@ public class DB_GUI_Controller implements Initializable {
 
         // Enable/Disable OK button based on input validation
         Button okButton = (Button) dialogPane.lookupButton(ButtonType.OK);
-        okButton.disableProperty().bind(
-                Bindings.createBooleanBinding(
-                        () -> !isQuickAddValid(nameField.getText(), lastNameField.getText(), emailField.getText()),
-                        nameField.textProperty(),
-                        lastNameField.textProperty(),
-                        emailField.textProperty()
-                )
-        );
+        FormValidator quickForm = new FormValidator(
+                FormValidator.Field.FIRST_NAME, FormValidator.Field.LAST_NAME, FormValidator.Field.EMAIL);
+        BooleanProperty quickValid = new SimpleBooleanProperty(false);
+        bindQuickField(quickForm, quickValid, nameField, FormValidator.Field.FIRST_NAME);
+        bindQuickField(quickForm, quickValid, lastNameField, FormValidator.Field.LAST_NAME);
+        bindQuickField(quickForm, quickValid, emailField, FormValidator.Field.EMAIL);
+        okButton.disableProperty().bind(quickValid.not());
 
         // Convert dialog result
         dialog.setResultConverter(dialogButton -> {
@@ -603,10 +1155,11 @@ public class DB_GUI_Controller implements Initializable {
         result.ifPresent(this::processQuickAdd);
     }
 
-    private boolean isQuickAddValid(String firstName, String lastName, String email) {
-        return NAME_PATTERN.matcher(firstName).matches() &&
-                NAME_PATTERN.matcher(lastName).matches() &&
-                EMAIL_PATTERN.matcher(email).matches();
+    private static void bindQuickField(FormValidator quickForm, BooleanProperty valid, TextField field, FormValidator.Field rule) {
+        field.textProperty().addListener((obs, oldText, text) -> {
+            quickForm.update(rule, text);
+            valid.set(quickForm.isValid());
+        });
     }
 
     private void processQuickAdd(Results results) {
@@ -620,15 +1173,19 @@ public class DB_GUI_Controller implements Initializable {
                     "" // Default empty image URL
             );
 
-            cnUtil.insertUser(p);
-            p.setId(cnUtil.retrieveId(p));
-            data.add(p);
-            showStatus("Quick add completed successfully!");
-            logger.makeLog("Quick add completed: " + p);
+            whenDone("fx.quickAdd", db.insertUser(p), "Quick Add Error", id -> {
+                if (isPaged()) {
+                    pagedData.reload();
+                } else {
+                    data.add(p);
+                }
+                showStatus("Quick add completed successfully!");
+                logger.info("Quick add completed: {}", p);
+            });
 
         } catch (Exception e) {
             showError("Quick Add Error", "Failed to add user: " + e.getMessage());
-            logger.makeLog("Quick add failed: " + e.getMessage());
+            logger.warn("Quick add failed: {}", e.getMessage());
         }
     }
 
@@ -645,15 +1202,20 @@ public class DB_GUI_Controller implements Initializable {
     }
     @FXML
     private void refreshTable() {
-        try {
-            data.clear();
-            data.addAll(cnUtil.getData());
+        if (isPaged()) {
+            pagedData.reload();
             showStatus("Table data refreshed successfully");
-            logger.makeLog("Table refresh performed");
-        } catch (Exception e) {
-            showError("Refresh Error", "Unable to refresh table data: " + e.getMessage());
-            logger.makeLog("Table refresh failed: " + e.getMessage());
+            logger.info("Table refresh performed");
+            return;
         }
+        UserQuery q = syncQuery;
+        whenDone("fx.refreshTable", db.fetchChangesSince(syncWatermark, q), "Refresh Error", changes -> {
+            applyChanges(q, changes);
+            showStatus(changes.complete()
+                    ? "Table data refreshed successfully"
+                    : String.format("Table refreshed: %d changed, %d deleted", changes.changed().size(), changes.deletedIds().size()));
+            logger.info("Table refresh performed; {}", DbConnectivityClass.getCache().getStats());
+        });
     }
 
     @FXML
@@ -672,10 +1234,10 @@ public class DB_GUI_Controller implements Initializable {
             guideStage.setScene(scene);
             guideStage.show();
 
-            logger.makeLog("User guide displayed");
+            logger.info("User guide displayed");
         } catch (IOException e) {
             showError("Guide Error", "Unable to display user guide: " + e.getMessage());
-            logger.makeLog("Failed to show user guide: " + e.getMessage());
+            logger.warn("Failed to show user guide: {}", e.getMessage());
         }
     }
     @FXML
@@ -686,7 +1248,7 @@ public class DB_GUI_Controller implements Initializable {
             );
         } catch (Exception e) {
             showError("Link Error", "Unable to open support website: " + e.getMessage());
-            logger.makeLog("Failed to open support link: " + e.getMessage());
+            logger.warn("Failed to open support link: {}", e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -30,7 +30,7 @@ public class LoginController {
 
     public void initialize() {
         rootpane.setOpacity(0);
-        FadeTransition fadeOut2 = new FadeTransition(Duration.seconds(10), rootpane);
+        FadeTransition fadeOut2 = new FadeTransition(Duration.millis(600), rootpane);
         fadeOut2.setFromValue(0);
         fadeOut2.setToValue(1);
         fadeOut2.play();
@@ -61,13 +61,17 @@ public class LoginController {
                 // Create user session
                 UserSession.getInstance(username, password, "ADMIN");
 
-                // Load main application window
-                Parent root = FXMLLoader.load(getClass().getResource("/view/db_interface_gui.fxml"));
-                Scene scene = new Scene(root, 900, 600);
-                scene.getStylesheets().add(getClass().getResource("/css/lightTheme.css").toExternalForm());
+                // Load main application window, unless it was already built during the splash
+                Scene scene = StartupOrchestrator.takeMainScene();
+                if (scene == null) {
+                    Parent root = FXMLLoader.load(getClass().getResource("/view/db_interface_gui.fxml"));
+                    scene = new Scene(root, 900, 600);
+                    scene.getStylesheets().add(getClass().getResource("/css/lightTheme.css").toExternalForm());
+                }
                 Stage window = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
                 window.setScene(scene);
                 window.show();
+                StartupOrchestrator.mark("main screen shown");
             } catch (Exception e) {
                 showError("Error loading application: " + e.getMessage());
             }
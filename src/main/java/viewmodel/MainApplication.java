@@ -1,7 +1,10 @@
 package viewmodel;
 
 import dao.DbConnectivityClass;
+import dao.UnitOfWork;
+import dao.UserSnapshot;
 import javafx.animation.FadeTransition;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -18,6 +21,9 @@ public class MainApplication extends Application {
 
     public static void main(String[] args) {
         cnUtil = new DbConnectivityClass();
+        // Connect and bootstrap the schema while the splash screen is up instead
+        // of on the first click that touches the database.
+        StartupOrchestrator.warmUpDatabase();
         launch(args);
 
     }
@@ -38,7 +44,14 @@ public class MainApplication extends Application {
             scene.getStylesheets().add(getClass().getResource("/css/lightTheme.css").toExternalForm());
             primaryStage.setScene(scene);
             primaryStage.show();
-            changeScene();
+            StartupOrchestrator.mark("splash shown");
+            // Give the splash a frame to paint, then build the main screen behind it
+            PauseTransition paint = new PauseTransition(Duration.millis(50));
+            paint.setOnFinished(e -> {
+                StartupOrchestrator.prepareMainScreen();
+                changeScene();
+            });
+            paint.play();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -50,13 +63,14 @@ public class MainApplication extends Application {
             Scene currentScene = primaryStage.getScene();
             Parent currentRoot = currentScene.getRoot();
             currentScene.getStylesheets().add(getClass().getResource("/css/lightTheme.css").toExternalForm());
-            FadeTransition fadeOut = new FadeTransition(Duration.seconds(3), currentRoot);
+            FadeTransition fadeOut = new FadeTransition(Duration.millis(400), currentRoot);
             fadeOut.setFromValue(1);
             fadeOut.setToValue(0);
             fadeOut.setOnFinished(e -> {
                 Scene newScene = new Scene(newRoot, 900, 600);
                 primaryStage.setScene(newScene);
                 primaryStage.show();
+                StartupOrchestrator.mark("login shown");
             });
             fadeOut.play();
         } catch (Exception e) {
@@ -64,5 +78,14 @@ public class MainApplication extends Application {
         }
     }
 
-
+    @Override
+    public void stop() {
+        // Lets the next launch show the table before the database answers. The table may
+        // show edits that could not be saved, which must not look saved next time.
+        if (UnitOfWork.commitAllOnExit()) {
+            UserSnapshot.saveOnExit();
+        } else {
+            UserSnapshot.discard();
+        }
+    }
 }
\ No newline at end of file
@@ -1,11 +1,25 @@
 package viewmodel;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public enum Major {
     CS("Computer Science"),
     CPIS("Computer Information Systems"),
     ENGLISH("English"),
     MATHEMATICS("Mathematics"),
-    PHYSICS("Physics");
+    PHYSICS("Physics"),
+    BUSINESS("Business");
+
+    // Display names in lower case, so fromString is one hash lookup.
+    private static final Map<String, Major> BY_NAME = new HashMap<>();
+
+    static {
+        for (Major major : values()) {
+            BY_NAME.put(major.displayName.toLowerCase(Locale.ROOT), major);
+        }
+    }
 
     private final String displayName;
 
@@ -19,11 +33,16 @@ public enum Major {
     }
 
     public static Major fromString(String text) {
-        for (Major major : Major.values()) {
-            if (major.displayName.equalsIgnoreCase(text)) {
-                return major;
-            }
+        Major major = find(text);
+        if (major == null) {
+            throw new IllegalArgumentException("No major found for: " + text);
         }
-        throw new IllegalArgumentException("No major found for: " + text);
+        return major;
+    }
+
+    // The major with this display name (ignoring case), or null. The majors table can
+    // hold names outside this list, e.g. from a CSV import.
+    public static Major find(String text) {
+        return text == null ? null : BY_NAME.get(text.toLowerCase(Locale.ROOT));
     }
 }
\ No newline at end of file
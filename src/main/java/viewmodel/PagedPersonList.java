@@ -0,0 +1,183 @@
+package viewmodel;
+
+import dao.DbConnectivityClass;
+import dao.UserQuery;
+import javafx.application.Platform;
+import model.Person;
+import service.MyLogger;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Read-only list over the users matching a UserQuery, for large tables. Only the
+// rows the TableView actually asks for are fetched: get(i) serves from a bounded
+// LRU of pages, and a missing page is loaded in the background while a blank
+// placeholder row is shown. Reading past three quarters of a page prefetches
+// the next one so scrolling down rarely sees placeholders. In id order pages are
+// walked by keyset; any other sort order falls back to LIMIT/OFFSET.
+//
+// Only touch this list on the JavaFX thread.
+public class PagedPersonList extends RemotePersonList {
+
+    public static final Person PLACEHOLDER = new Person();
+
+    private static final MyLogger log = MyLogger.get("ui");
+
+    private final DbConnectivityClass cnUtil;
+    private final int pageSize;
+    private final Map<Integer, List<Person>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    // Keyset boundary of each page: the last id of the page before it.
+    private final Map<Integer, Integer> afterIds = new ConcurrentHashMap<>();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "paged-person-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private UserQuery query = new UserQuery();
+    private int size;
+    // Bumped by reload() so pages fetched for the old contents are discarded.
+    private int generation;
+
+    public PagedPersonList(DbConnectivityClass cnUtil, int pageSize, int maxCachedPages) {
+        this.cnUtil = cnUtil;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Person>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    @Override
+    public Person get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int page = index / pageSize;
+        int offset = index % pageSize;
+        List<Person> rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            return PLACEHOLDER;
+        }
+        if (offset >= pageSize * 3 / 4 && (page + 1) * pageSize < size) {
+            request(page + 1);
+        }
+        return offset < rows.size() ? rows.get(offset) : PLACEHOLDER;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public UserQuery getQuery() {
+        return query;
+    }
+
+    // Switches to a new filter/sort; the window (limit, offset, afterId) is managed here.
+    @Override
+    public void setQuery(UserQuery query) {
+        this.query = query.copy().limit(0).offset(0).afterId(null);
+        reload();
+    }
+
+    // Drops every cached page and re-reads the row count, e.g. after a write.
+    @Override
+    public void reload() {
+        int expected = ++generation;
+        UserQuery current = query;
+        loader.execute(() -> {
+            try {
+                int total = cnUtil.countUsers(current);
+                Platform.runLater(() -> {
+                    if (expected == generation) {
+                        reset(total);
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("Failed to count users: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void reset(int total) {
+        int oldSize = size;
+        pages.clear();
+        loading.clear();
+        afterIds.clear();
+        afterIds.put(0, 0);
+        size = total;
+
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, Collections.nCopies(oldSize, PLACEHOLDER));
+        }
+        if (total > 0) {
+            nextAdd(0, total);
+        }
+        endChange();
+    }
+
+    private void request(int page) {
+        if (pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+        int expected = generation;
+        UserQuery current = query;
+        loader.execute(() -> {
+            try {
+                List<Person> rows = cnUtil.queryUsers(pageQuery(current, page));
+                Platform.runLater(() -> install(expected, page, rows));
+            } catch (RuntimeException e) {
+                log.warn("Failed to load page {}: {}", page, e.getMessage());
+                Platform.runLater(() -> loading.remove(page));
+            }
+        });
+    }
+
+    private UserQuery pageQuery(UserQuery current, int page) {
+        UserQuery q = current.copy().limit(pageSize);
+        if (!current.isKeysetOrder()) {
+            return q.offset(page * pageSize);
+        }
+        Integer afterId = afterIds.get(page);
+        if (afterId == null) {
+            // Jumped past pages that were never loaded: find the boundary with a
+            // one-row lookup of the last row on the previous page.
+            List<Person> boundary = cnUtil.queryUsers(current.copy().limit(1).offset(page * pageSize - 1));
+            afterId = boundary.isEmpty() ? 0 : boundary.get(0).getId();
+        }
+        return q.afterId(afterId);
+    }
+
+    private void install(int expected, int page, List<Person> rows) {
+        if (expected != generation) {
+            return;
+        }
+        loading.remove(page);
+        pages.put(page, rows);
+        if (!rows.isEmpty()) {
+            afterIds.put(page + 1, rows.get(rows.size() - 1).getId());
+        }
+
+        int from = page * pageSize;
+        int to = Math.min(from + rows.size(), size);
+        if (from < to) {
+            beginChange();
+            nextReplace(from, to, Collections.nCopies(to - from, PLACEHOLDER));
+            endChange();
+        }
+    }
+}
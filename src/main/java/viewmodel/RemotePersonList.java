@@ -0,0 +1,18 @@
+package viewmodel;
+
+import dao.UserQuery;
+import javafx.collections.ObservableListBase;
+import model.Person;
+
+// Read-only table contents for large tables, kept in step with a UserQuery by the
+// list itself rather than by the controller. Only touch it on the JavaFX thread.
+public abstract class RemotePersonList extends ObservableListBase<Person> {
+
+    public abstract UserQuery getQuery();
+
+    // Switches to a new filter/sort; any window (limit, offset, afterId) is ignored.
+    public abstract void setQuery(UserQuery query);
+
+    // Catches up with the database, e.g. after a write.
+    public abstract void reload();
+}
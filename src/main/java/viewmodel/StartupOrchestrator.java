@@ -0,0 +1,159 @@
+package viewmodel;
+
+import dao.DbConnectivityClass;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import metrics.Metrics;
+import service.MyLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Uses the time the splash and login screens are up to get everything the main
+// screen needs ready, so it is interactive as soon as the user logs in.
+//
+// In the background, in parallel: load the JDBC driver, then open the first pool
+// connections while the schema is checked and migrated. On the JavaFX thread,
+// while the splash is showing: parse db_interface_gui.fxml and apply its
+// stylesheet. Building the main screen runs its controller, which starts loading
+// the table (from the local snapshot, then the database), so the first rows are
+// usually there before login.
+//
+// Each phase is logged and timed (metrics startup.<phase>) as it finishes, with
+// its offset from launch; mark() adds milestones to the same timeline.
+public final class StartupOrchestrator {
+
+    private record Phase(String name, long startMs, long ms, String thread) {
+    }
+
+    private static final MyLogger log = MyLogger.get("startup");
+    private static final long launchNanos = System.nanoTime();
+    private static final List<Phase> timeline = new ArrayList<>();
+    private static final Set<String> marks = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "startup-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static Scene mainScene;
+
+    private StartupOrchestrator() {
+    }
+
+    // Starts the background phases; returns at once.
+    public static CompletableFuture<Void> warmUpDatabase() {
+        CompletableFuture<Void> driver = CompletableFuture.runAsync(() -> phase("driver", () -> {
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("MySQL driver is not on the classpath", e);
+            }
+        }), WORKERS);
+        // Usually the database already exists, so the pool can open its connections
+        // while the migrations are checked; if not, the bootstrap warms it afterwards.
+        CompletableFuture<Void> pool = driver.thenRunAsync(() -> phase("pool", () -> {
+            try {
+                DbConnectivityClass.getPool().warmUp();
+            } catch (Exception e) {
+                log.debug("Early pool warm-up failed, leaving it to the schema bootstrap: {}", e.getMessage());
+            }
+        }), WORKERS);
+        CompletableFuture<Void> schema = driver.thenRunAsync(() -> phase("schema", DbConnectivityClass::ensureSchema), WORKERS);
+        return CompletableFuture.allOf(pool, schema).whenComplete((result, error) -> {
+            if (error != null) {
+                log.error("Database warm-up failed: {}", error.getMessage());
+            }
+            mark("database ready");
+        });
+    }
+
+    // Builds the main screen ahead of login. Must run on the JavaFX thread.
+    public static void prepareMainScreen() {
+        try {
+            Parent root = phase("fxml", () -> load("/view/db_interface_gui.fxml"));
+            mainScene = phase("css", () -> {
+                Scene scene = new Scene(root, 900, 600);
+                scene.getStylesheets().add(StartupOrchestrator.class.getResource("/css/lightTheme.css").toExternalForm());
+                root.applyCss();
+                return scene;
+            });
+        } catch (RuntimeException e) {
+            // Login falls back to loading the screen itself
+            log.warn("Could not prepare the main screen: {}", e.getMessage(), e);
+        }
+    }
+
+    // The prepared main screen, once; null if it wasn't prepared or was already used.
+    public static Scene takeMainScene() {
+        Scene scene = mainScene;
+        mainScene = null;
+        return scene;
+    }
+
+    // Logs a milestone on the startup timeline; only the first mark of each name counts.
+    public static void mark(String milestone) {
+        if (marks.add(milestone)) {
+            long at = elapsedMs(System.nanoTime());
+            log.info("Startup: {}", milestone, MyLogger.kv("atMs", at));
+            if (milestone.equals("main screen shown")) {
+                logTimeline(at);
+            }
+        }
+    }
+
+    private static <T> T phase(String name, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            long end = System.nanoTime();
+            Metrics.timer("startup." + name).record(end - start);
+            Phase phase = new Phase(name, elapsedMs(start), (end - start) / 1_000_000, Thread.currentThread().getName());
+            synchronized (timeline) {
+                timeline.add(phase);
+            }
+            log.info("Startup phase {} done", name, MyLogger.kv("startMs", phase.startMs()),
+                    MyLogger.kv("ms", phase.ms()), MyLogger.kv("thread", phase.thread()));
+        }
+    }
+
+    private static void phase(String name, Runnable work) {
+        phase(name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private static void logTimeline(long interactiveMs) {
+        StringBuilder sb = new StringBuilder();
+        synchronized (timeline) {
+            for (Phase p : timeline) {
+                sb.append(String.format("%n  %-8s +%6d ms  %6d ms  [%s]", p.name(), p.startMs(), p.ms(), p.thread()));
+            }
+        }
+        log.info("Startup timeline (main screen shown at +{} ms):{}", interactiveMs, sb);
+    }
+
+    private static Parent load(String view) {
+        try {
+            return FXMLLoader.load(StartupOrchestrator.class.getResource(view));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot load " + view + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static long elapsedMs(long nanos) {
+        return (nanos - launchNanos) / 1_000_000;
+    }
+}
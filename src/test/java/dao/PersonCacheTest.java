@@ -0,0 +1,135 @@
+package dao;
+
+import model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PersonCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsed() {
+        PersonCache cache = new PersonCache(3);
+        for (int id = 1; id <= 3; id++) {
+            cache.put(person(id, "u" + id + "@example.com"));
+        }
+        // Reading 1 makes 2 the eldest
+        assertNotNull(cache.getById(1));
+        cache.put(person(4, "u4@example.com"));
+        assertNull(cache.getById(2));
+        assertNull(cache.getByEmail("u2@example.com"), "the email index forgets evicted rows");
+        assertNotNull(cache.getByEmail("U1@EXAMPLE.COM"));
+        assertNotNull(cache.getById(3));
+        assertNotNull(cache.getById(4));
+
+        PersonCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.evictions());
+        assertEquals(3, stats.size());
+        assertEquals(4, stats.hits());
+        assertEquals(2, stats.misses());
+    }
+
+    @Test
+    void emailIndexFollowsEditsAndDeletes() {
+        PersonCache cache = new PersonCache(10);
+        cache.put(person(1, "old@example.com"));
+        cache.put(person(1, "new@example.com"));
+        assertNull(cache.getByEmail("old@example.com"));
+        assertEquals(1, cache.getByEmail("New@Example.com").getId());
+
+        // The email moved to another row, so the cached owner is stale
+        cache.put(person(2, "NEW@example.com"));
+        assertNull(cache.getById(1));
+        assertEquals(2, cache.getByEmail("new@example.com").getId());
+
+        cache.remove(2);
+        assertNull(cache.getByEmail("new@example.com"));
+        assertNull(cache.getById(2));
+    }
+
+    @Test
+    void rowsWithoutEmailDontDisplaceEachOther() {
+        PersonCache cache = new PersonCache(10);
+        cache.put(person(1, null));
+        cache.put(person(2, null));
+        assertNotNull(cache.getById(1));
+        assertNotNull(cache.getById(2));
+        assertNull(cache.getByEmail(""));
+        cache.remove(1);
+        assertNotNull(cache.getById(2));
+    }
+
+    @Test
+    void entriesAreCopies() {
+        PersonCache cache = new PersonCache(10);
+        Person p = person(1, "a@example.com");
+        cache.put(p);
+        p.setFirstName("Changed");
+        cache.getById(1).setFirstName("Changed too");
+        assertEquals("First", cache.getById(1).getFirstName());
+        cache.put(new Person(null, "No", "Id", null, null, "x@example.com", null));
+        assertNull(cache.getByEmail("x@example.com"));
+    }
+
+    // Random puts, edits, reads and removes against an access-ordered map of the
+    // same size; by id and by email the cache must agree with it after every step.
+    @Test
+    void agreesWithAReferenceLru() {
+        int maxSize = 50;
+        PersonCache cache = new PersonCache(maxSize);
+        Map<Integer, Person> expected = new LinkedHashMap<>(16, 0.75f, true);
+        Random random = new Random(909);
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(120);
+            int action = random.nextInt(10);
+            if (action < 4) {
+                // Emails come from a small pool, so they often move between ids
+                String email = random.nextInt(20) == 0 ? null : "e" + random.nextInt(150) + "@example.com";
+                Person p = person(id, random.nextBoolean() || email == null ? email : email.toUpperCase(Locale.ROOT));
+                cache.put(p);
+                if (email != null) {
+                    expected.values().removeIf(q -> q.getId() != id && email.equalsIgnoreCase(q.getEmail()));
+                }
+                expected.remove(id);
+                expected.put(id, p);
+                if (expected.size() > maxSize) {
+                    expected.remove(expected.keySet().iterator().next());
+                }
+            } else if (action < 5) {
+                cache.remove(id);
+                expected.remove(id);
+            } else if (action < 8) {
+                Person hit = cache.getById(id);
+                Person want = expected.get(id);
+                assertEquals(want == null ? null : want.getEmail(), hit == null ? null : hit.getEmail(), "id " + id);
+            } else {
+                String email = "e" + random.nextInt(150) + "@example.com";
+                Person hit = cache.getByEmail(email);
+                Integer want = null;
+                for (Person q : new ArrayList<>(expected.values())) {
+                    if (email.equalsIgnoreCase(q.getEmail())) {
+                        want = q.getId();
+                        expected.get(want);
+                    }
+                }
+                assertEquals(want, hit == null ? null : hit.getId(), email);
+            }
+            assertEquals(expected.size(), cache.getStats().size());
+        }
+        for (int id : new ArrayList<>(expected.keySet())) {
+            assertNotNull(cache.getById(id));
+        }
+    }
+
+    private static Person person(int id, String email) {
+        return new Person(id, "First", "Last", null, null, email, null);
+    }
+}
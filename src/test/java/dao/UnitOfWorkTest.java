@@ -0,0 +1,181 @@
+package dao;
+
+import model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Staging, draining and restaging, with applyBatch stubbed out so no database is needed.
+class UnitOfWorkTest {
+
+    // Records what each applyBatch call was given, and fails while failing is set.
+    private static class StubDb extends DbConnectivityClass {
+        final List<List<String>> applied = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        public void applyBatch(List<Person> inserts, List<Person> updates) {
+            if (failing) {
+                throw new RuntimeException("database is down");
+            }
+            List<String> names = new ArrayList<>();
+            for (Person p : inserts) {
+                names.add("insert " + p.getFirstName());
+            }
+            for (Person p : updates) {
+                names.add("update " + p.getId() + " " + p.getFirstName());
+            }
+            applied.add(names);
+        }
+    }
+
+    private final StubDb db = new StubDb();
+    private final UnitOfWork unit = new UnitOfWork(db);
+
+    @AfterEach
+    void close() {
+        unit.close();
+    }
+
+    @Test
+    void editingAStagedInsertReplacesIt() {
+        Person added = person(null, "Ada");
+        unit.stageInsert(added);
+        Person edited = person(null, "Ada2");
+        unit.stageUpdate(added, edited);
+        assertEquals(1, unit.size());
+        assertFalse(unit.isPending(added));
+        assertTrue(unit.isPending(edited));
+
+        UnitOfWork.Batch batch = unit.drain();
+        assertEquals(List.of(edited), batch.staged());
+        assertEquals(1, batch.inserts().size());
+        assertEquals("Ada2", batch.inserts().get(0).getFirstName());
+        assertTrue(batch.updates().isEmpty());
+        assertEquals(0, unit.size());
+    }
+
+    @Test
+    void drainCopiesTheStagedRows() {
+        Person staged = person(1, "A");
+        unit.stageUpdate(person(1, "old"), staged);
+        UnitOfWork.Batch batch = unit.drain();
+        assertSame(staged, batch.staged().get(0));
+        assertNotSame(staged, batch.rows().get(0));
+        staged.setFirstName("Z");
+        assertEquals("A", batch.rows().get(0).getFirstName());
+    }
+
+    @Test
+    void repeatedEditsOfARowCoalesce() {
+        Person first = person(1, "A");
+        Person second = person(1, "B");
+        unit.stageUpdate(person(1, "old"), first);
+        unit.stageUpdate(first, second);
+        assertEquals(1, unit.size());
+        unit.commit();
+        assertEquals(List.of(List.of("update 1 B")), db.applied);
+    }
+
+    @Test
+    void editingAnInsertBeingSavedIsRefused() {
+        Person added = person(null, "Ada");
+        unit.stageInsert(added);
+        unit.drain();
+        assertThrows(IllegalStateException.class, () -> unit.stageUpdate(added, person(null, "Ada2")));
+    }
+
+    @Test
+    void isPendingGoesByIdentity() {
+        Person staged = person(1, "A");
+        unit.stageUpdate(person(1, "old"), staged);
+        assertTrue(unit.isPending(staged));
+        assertFalse(unit.isPending(person(1, "A")), "an equal copy is a different row");
+
+        Person added = person(null, "B");
+        unit.stageInsert(added);
+        assertTrue(unit.isPending(added));
+        assertFalse(unit.isPending(person(null, "B")));
+
+        unit.discard(staged);
+        assertFalse(unit.isPending(staged));
+        assertTrue(unit.hasPendingEmail("B@EXAMPLE.COM", null));
+        assertFalse(unit.hasPendingEmail("b@example.com", added));
+    }
+
+    @Test
+    void failedBatchIsRestagedBeforeNewerEdits() {
+        Person added = person(null, "A");
+        unit.stageInsert(added);
+        unit.stageUpdate(person(1, "old"), person(1, "B"));
+        unit.stageUpdate(person(2, "old"), person(2, "C"));
+        UnitOfWork.Batch batch = unit.drain();
+        CompletableFuture<Void> write = new CompletableFuture<>();
+        unit.writing(batch, write);
+
+        // Edited again while the batch was in flight: the newer version must win
+        unit.stageUpdate(person(2, "C"), person(2, "C2"));
+        unit.stageUpdate(person(3, "old"), person(3, "D"));
+        unit.stageInsert(person(null, "E"));
+
+        write.completeExceptionally(new RuntimeException("lost connection"));
+        assertTrue(unit.settle(write, new RuntimeException("lost connection")));
+        assertFalse(unit.isWriting());
+        assertTrue(unit.isPending(added));
+
+        unit.commit();
+        assertEquals(List.of(List.of("insert A", "insert E", "update 1 B", "update 2 C2", "update 3 D")), db.applied);
+    }
+
+    @Test
+    void commitSettlesTheWriteInFlight() {
+        unit.stageUpdate(person(1, "old"), person(1, "A"));
+        UnitOfWork.Batch batch = unit.drain();
+        CompletableFuture<Void> write = new CompletableFuture<>();
+        write.completeExceptionally(new RuntimeException("timeout"));
+        unit.writing(batch, write);
+        unit.stageUpdate(person(2, "old"), person(2, "B"));
+
+        unit.commit();
+        assertFalse(unit.isWriting());
+        assertEquals(List.of(List.of("update 1 A", "update 2 B")), db.applied);
+        // The write's own completion handler runs after commit() and must do nothing
+        assertFalse(unit.settle(write, new RuntimeException("timeout")));
+        assertEquals(0, unit.size());
+    }
+
+    @Test
+    void failedCommitKeepsEverythingStaged() {
+        Person added = person(null, "A");
+        unit.stageInsert(added);
+        unit.stageUpdate(person(1, "old"), person(1, "B"));
+        db.failing = true;
+        assertThrows(RuntimeException.class, unit::commit);
+        assertEquals(2, unit.size());
+        assertTrue(unit.isPending(added));
+
+        db.failing = false;
+        unit.commit();
+        assertEquals(List.of(List.of("insert A", "update 1 B")), db.applied);
+    }
+
+    @Test
+    void onlyOneWriteAtATime() {
+        unit.writing(unit.drain(), new CompletableFuture<>());
+        assertThrows(IllegalStateException.class, () -> unit.writing(unit.drain(), new CompletableFuture<>()));
+    }
+
+    private static Person person(Integer id, String firstName) {
+        return new Person(id, firstName, "Lovelace", null, null, firstName.toLowerCase() + "@example.com", null);
+    }
+}
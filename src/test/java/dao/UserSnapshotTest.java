@@ -0,0 +1,87 @@
+package dao;
+
+import model.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UserSnapshotTest {
+
+    private static final Timestamp WATERMARK = new Timestamp(1_700_000_000_123L);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripKeepsNullsAndSkipsRowsWithoutId() {
+        Path file = dir.resolve("nested").resolve("users.snapshot");
+        List<Person> rows = List.of(
+                new Person(1, "Zoë", "李", "Computer Systems", "Computer Science", "zoe@example.com", "file:/z.png"),
+                new Person(null, "New", "Row", null, null, "new@example.com", null),
+                new Person(2, null, "", null, "", "x@example.com", null),
+                new Person(3, "A", "B", "English & Humanities", "English", "a@example.com", null));
+        UserSnapshot.save(file, new UserSnapshot.Snapshot(rows, WATERMARK));
+
+        UserSnapshot.Snapshot loaded = UserSnapshot.load(file, 10);
+        assertNotNull(loaded);
+        assertEquals(WATERMARK, loaded.watermark());
+        assertEquals(3, loaded.rows().size());
+        assertSamePerson(rows.get(0), loaded.rows().get(0));
+        assertSamePerson(rows.get(2), loaded.rows().get(1));
+        assertSamePerson(rows.get(3), loaded.rows().get(2));
+        assertEquals("", loaded.rows().get(1).getLastName());
+        assertNull(loaded.rows().get(1).getFirstName());
+    }
+
+    @Test
+    void tooManyRowsIsNotLoaded() {
+        Path file = dir.resolve("users.snapshot");
+        Person[] rows = new Person[5];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Person(i + 1, "F" + i, "L" + i, null, null, i + "@example.com", null);
+        }
+        UserSnapshot.save(file, new UserSnapshot.Snapshot(Arrays.asList(rows), WATERMARK));
+        assertNull(UserSnapshot.load(file, 4));
+        assertEquals(5, UserSnapshot.load(file, 5).rows().size());
+    }
+
+    @Test
+    void missingDamagedOrUnstampedSnapshotsAreIgnored() throws IOException {
+        Path file = dir.resolve("users.snapshot");
+        assertNull(UserSnapshot.load(file, 10));
+
+        // No watermark means there is nothing to sync from, so nothing is written
+        UserSnapshot.save(file, new UserSnapshot.Snapshot(List.of(), null));
+        assertNull(UserSnapshot.load(file, 10));
+
+        UserSnapshot.save(file, new UserSnapshot.Snapshot(
+                List.of(new Person(1, "A", "B", null, null, "a@example.com", null)), WATERMARK));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertNull(UserSnapshot.load(file, 10));
+
+        bytes[0] ^= 1;
+        Files.write(file, bytes);
+        assertNull(UserSnapshot.load(file, 10));
+    }
+
+    private static void assertSamePerson(Person expected, Person actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getFirstName(), actual.getFirstName());
+        assertEquals(expected.getLastName(), actual.getLastName());
+        assertEquals(expected.getDepartment(), actual.getDepartment());
+        assertEquals(expected.getMajor(), actual.getMajor());
+        assertEquals(expected.getEmail(), actual.getEmail());
+        assertEquals(expected.getImageURL(), actual.getImageURL());
+    }
+}
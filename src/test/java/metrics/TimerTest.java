@@ -0,0 +1,97 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerTest {
+
+    @Test
+    void bucketsAreExactBelowSixteenMicros() {
+        for (long micros = 0; micros < 16; micros++) {
+            assertEquals(micros, Timer.upperBoundOf(Timer.bucketOf(micros)));
+        }
+    }
+
+    // Buckets tile the range without gaps, in order, each at most 1/16 of its values wide.
+    @Test
+    void bucketsCoverEveryValueWithinOneSixteenth() {
+        int previous = Timer.bucketOf(0);
+        for (long micros = 1; micros < 1 << 20; micros++) {
+            assertBucket(micros);
+            int bucket = Timer.bucketOf(micros);
+            assertTrue(bucket == previous || bucket == previous + 1, "bucket order at " + micros);
+            previous = bucket;
+        }
+        Random random = new Random(64);
+        for (int i = 0; i < 100_000; i++) {
+            assertBucket(1 + (random.nextLong() >>> 22));
+        }
+        long max = (1L << 42) - 1;
+        assertBucket(max);
+        assertEquals(max, Timer.upperBoundOf(Timer.bucketOf(max)));
+    }
+
+    @Test
+    void percentilesOfKnownDistributions() {
+        Timer timer = new Timer();
+        assertEquals(0, timer.percentileMicros(0.5));
+        for (int micros = 1; micros <= 100; micros++) {
+            timer.record(micros * 1000L);
+        }
+        assertEquals(15, timer.percentileMicros(0.15), "exact below 16 us");
+        // 50 us shares a bucket with 51 us; the bucket's upper bound is reported
+        assertEquals(51, timer.percentileMicros(0.50));
+        assertEquals(100, timer.percentileMicros(1.0), "never above the max");
+        assertEquals(1, timer.percentileMicros(0.0));
+        assertEquals(100, timer.getCount());
+        assertEquals(0.0505, timer.getMeanMillis(), 1e-9);
+        assertEquals(0.1, timer.getMaxMillis(), 1e-9);
+
+        timer.reset();
+        assertEquals(0, timer.getCount());
+        assertEquals(0, timer.percentileMicros(0.99));
+        assertEquals(0, timer.getMaxMillis());
+    }
+
+    @Test
+    void percentilesOfRandomSamplesAreWithinBucketPrecision() {
+        Random random = new Random(7);
+        Timer timer = new Timer();
+        long[] samples = new long[50_000];
+        for (int i = 0; i < samples.length; i++) {
+            // Log-normal-ish: most calls fast, a long tail of slow ones
+            samples[i] = Math.round(Math.exp(random.nextGaussian() * 2 + 6));
+            timer.record(samples[i] * 1000);
+        }
+        Arrays.sort(samples);
+        for (double fraction : new double[]{0.01, 0.25, 0.5, 0.9, 0.95, 0.99, 0.999, 1.0}) {
+            long exact = samples[(int) Math.ceil(fraction * samples.length) - 1];
+            long reported = timer.percentileMicros(fraction);
+            assertTrue(reported >= exact && reported <= exact + exact / 16,
+                    "p" + fraction * 100 + ": exact " + exact + ", reported " + reported);
+        }
+    }
+
+    @Test
+    void outOfRangeDurationsAreClamped() {
+        Timer timer = new Timer();
+        timer.record(-5_000);
+        timer.record(999);
+        assertEquals(0, timer.percentileMicros(1.0));
+        timer.record(Long.MAX_VALUE);
+        assertEquals((1L << 42) - 1, timer.percentileMicros(1.0));
+    }
+
+    private static void assertBucket(long micros) {
+        int bucket = Timer.bucketOf(micros);
+        long upper = Timer.upperBoundOf(bucket);
+        long lower = bucket == 0 ? 0 : Timer.upperBoundOf(bucket - 1) + 1;
+        assertTrue(lower <= micros && micros <= upper, micros + " outside bucket " + bucket + " [" + lower + ", " + upper + "]");
+        assertTrue(upper - lower + 1 <= Math.max(1, lower / 16), "bucket " + bucket + " too wide");
+    }
+}
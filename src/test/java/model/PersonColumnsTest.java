@@ -0,0 +1,209 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonColumnsTest {
+
+    @Test
+    void appendReadsBackEveryColumn() {
+        PersonColumns columns = new PersonColumns(4);
+        int row = columns.append(7, "Zoë", "李", "Computer Systems", "Computer Science", "zoe@example.com", "file:/z.png");
+        assertEquals(0, row);
+        assertEquals(7, columns.getId(row));
+        assertEquals("Zoë", columns.getFirstName(row));
+        assertEquals("李", columns.getLastName(row));
+        assertEquals("Computer Systems", columns.getDepartment(row));
+        assertEquals("Computer Science", columns.getMajor(row));
+        assertEquals("zoe@example.com", columns.getEmail(row));
+        assertEquals("file:/z.png", columns.getImageURL(row));
+        assertEquals(row, columns.rowOf(7));
+        assertEquals(1, columns.size());
+        assertEquals(1, columns.liveCount());
+        assertSamePerson(columns.toPerson(row), columns.row(row));
+    }
+
+    @Test
+    void nullAndEmptyStringsStayApart() {
+        PersonColumns columns = new PersonColumns(4);
+        int nulls = columns.append(1, null, null, null, null, null, null);
+        int empties = columns.append(2, "", "", "", "", "", "");
+        int text = columns.append(3, "a", "a", "a", "a", "a", "a");
+        assertNull(columns.getFirstName(nulls));
+        assertNull(columns.getDepartment(nulls));
+        assertNull(columns.getImageURL(nulls));
+        assertEquals("", columns.getFirstName(empties));
+        assertEquals("", columns.getDepartment(empties));
+        assertEquals("", columns.getImageURL(empties));
+        for (PersonColumns.Column column : new PersonColumns.Column[]{
+                PersonColumns.Column.FIRST_NAME, PersonColumns.Column.DEPARTMENT, PersonColumns.Column.EMAIL}) {
+            assertTrue(columns.compare(column, nulls, empties) < 0, column + ": null before empty");
+            assertTrue(columns.compare(column, empties, text) < 0, column + ": empty before text");
+            assertEquals(0, columns.compare(column, nulls, nulls), column.toString());
+        }
+
+        // Rewriting null to empty and back must not mix them up either
+        columns.set(nulls, new Person(1, "", null, "", null, "", null));
+        assertEquals("", columns.getFirstName(nulls));
+        assertNull(columns.getLastName(nulls));
+        columns.compact();
+        assertEquals("", columns.getFirstName(nulls));
+        assertNull(columns.getLastName(nulls));
+        assertEquals("", columns.getDepartment(nulls));
+        assertNull(columns.getMajor(nulls));
+    }
+
+    @Test
+    void setReplacesValuesAndUndeletes() {
+        PersonColumns columns = new PersonColumns(4);
+        int row = columns.append(5, "Ada", "Lovelace", "Mathematics", "Mathematics", "ada@example.com", null);
+        columns.delete(row);
+        assertTrue(columns.isDeleted(row));
+        assertEquals(0, columns.liveCount());
+
+        columns.set(row, new Person(99, "Grace", "Hopper", "Computer Systems", "Computer Science", "grace@example.com", "x"));
+        assertFalse(columns.isDeleted(row));
+        assertEquals(1, columns.liveCount());
+        assertEquals(5, columns.getId(row), "set keeps the row's id");
+        assertEquals("Grace", columns.getFirstName(row));
+        assertEquals("Computer Systems", columns.getDepartment(row));
+        assertEquals("x", columns.getImageURL(row));
+        assertTrue(columns.getGarbageBytes() > 0);
+    }
+
+    @Test
+    void putUpdatesByIdOrAppends() {
+        PersonColumns columns = new PersonColumns(4);
+        columns.append(1, "A", "A", null, null, "a@example.com", null);
+        int row = columns.put(new Person(1, "B", "B", null, null, "b@example.com", null));
+        assertEquals(0, row);
+        assertEquals("B", columns.getFirstName(0));
+        assertEquals(1, columns.size());
+
+        int added = columns.put(new Person(2, "C", "C", null, null, "c@example.com", null));
+        assertEquals(1, added);
+        assertEquals(2, columns.size());
+        assertEquals(added, columns.rowOf(2));
+    }
+
+    @Test
+    void deleteKeepsTheRowFindable() {
+        PersonColumns columns = new PersonColumns(4);
+        columns.append(1, "A", "A", null, null, "a@example.com", null);
+        columns.append(2, "B", "B", null, null, "b@example.com", null);
+        columns.delete(0);
+        columns.delete(0);
+        assertTrue(columns.isDeleted(0));
+        assertFalse(columns.isDeleted(1));
+        assertEquals(1, columns.liveCount());
+        assertEquals(2, columns.size());
+        assertEquals(0, columns.rowOf(1));
+        assertEquals(-1, columns.rowOf(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.delete(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.getFirstName(-1));
+    }
+
+    @Test
+    void compactAfterManyRewrites() {
+        int rows = 500;
+        PersonColumns columns = new PersonColumns(rows);
+        for (int i = 0; i < rows; i++) {
+            columns.append(i, "First" + i, "Last" + i, "Dept" + (i % 3), "Major" + (i % 5), "s" + i + "@example.com", null);
+        }
+        long before = columns.estimateBytes();
+        Random random = new Random(23);
+        Person[] expected = new Person[rows];
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < rows; i++) {
+                if (random.nextInt(4) == 0) {
+                    continue;
+                }
+                String suffix = "-" + round + "-" + random.nextInt(1000);
+                Person p = new Person(i, "First" + i + suffix, i % 7 == 0 ? null : "Last" + i + suffix,
+                        "Dept" + (i % 3), "Major" + round % 5, round % 2 == 0 ? "" : "s" + i + suffix + "@example.com",
+                        i % 11 == 0 ? "file:/" + i + suffix : null);
+                columns.set(i, p);
+                expected[i] = p;
+            }
+        }
+        assertTrue(columns.getGarbageBytes() > 0);
+        assertTrue(columns.estimateBytes() > before);
+
+        columns.compact();
+        assertEquals(0, columns.getGarbageBytes());
+        for (int i = 0; i < rows; i++) {
+            if (expected[i] != null) {
+                assertSamePerson(expected[i], columns.row(i));
+            }
+        }
+
+        // The store keeps working after a compaction
+        columns.set(3, new Person(3, "Again", "Again", null, null, "again@example.com", null));
+        int row = columns.append(rows, "New", "New", null, null, "new@example.com", null);
+        assertEquals("Again", columns.getFirstName(3));
+        assertEquals("New", columns.getFirstName(row));
+        assertEquals(row, columns.rowOf(rows));
+    }
+
+    @Test
+    void idIndexGrowsPastItsInitialCapacity() {
+        PersonColumns columns = new PersonColumns(1);
+        int rows = 20_000;
+        // Sparse, negative and clustered ids, so the index probes and rehashes
+        for (int i = 0; i < rows; i++) {
+            int id = i % 2 == 0 ? i * 1024 : -i;
+            assertEquals(i, columns.append(id, "F" + i, "L" + i, null, null, "e" + i + "@example.com", null));
+        }
+        assertEquals(rows, columns.size());
+        for (int i = 0; i < rows; i++) {
+            int id = i % 2 == 0 ? i * 1024 : -i;
+            assertEquals(i, columns.rowOf(id));
+            assertEquals(id, columns.getId(i));
+            assertEquals("F" + i, columns.getFirstName(i));
+        }
+        assertEquals(-1, columns.rowOf(1));
+        assertEquals(-1, columns.rowOf(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void compareIgnoresAsciiCase() {
+        PersonColumns columns = new PersonColumns(4);
+        int lower = columns.append(1, "abc", "smith", "english", "physics", "a@x.co", null);
+        int upper = columns.append(2, "ABD", "SMITH", "English & Humanities", "PHYSICS", "A@X.CO", null);
+        assertTrue(columns.compare(PersonColumns.Column.FIRST_NAME, lower, upper) < 0);
+        assertTrue(columns.compare(PersonColumns.Column.FIRST_NAME, upper, lower) > 0);
+        assertEquals(0, columns.compare(PersonColumns.Column.LAST_NAME, lower, upper));
+        assertEquals(0, columns.compare(PersonColumns.Column.EMAIL, lower, upper));
+        assertEquals(0, columns.compare(PersonColumns.Column.MAJOR, lower, upper));
+        assertTrue(columns.compare(PersonColumns.Column.DEPARTMENT, lower, upper) < 0);
+        assertTrue(columns.compare(PersonColumns.Column.ID, lower, upper) < 0);
+    }
+
+    @Test
+    void rowViewsFollowTheirRowAndAreReadOnly() {
+        PersonColumns columns = new PersonColumns(4);
+        int row = columns.append(1, "A", "A", null, null, "a@example.com", null);
+        PersonRow view = columns.row(row);
+        columns.set(row, new Person(1, "B", "A", null, null, "a@example.com", null));
+        assertEquals("B", view.getFirstName());
+        assertEquals(view, columns.row(row));
+        assertThrows(UnsupportedOperationException.class, () -> view.setFirstName("C"));
+    }
+
+    private static void assertSamePerson(Person expected, Person actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getFirstName(), actual.getFirstName());
+        assertEquals(expected.getLastName(), actual.getLastName());
+        assertEquals(expected.getDepartment(), actual.getDepartment());
+        assertEquals(expected.getMajor(), actual.getMajor());
+        assertEquals(expected.getEmail(), actual.getEmail());
+        assertEquals(expected.getImageURL(), actual.getImageURL());
+    }
+}
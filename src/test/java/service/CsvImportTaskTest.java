@@ -0,0 +1,134 @@
+package service;
+
+import dao.DbConnectivityClass;
+import model.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.CsvReader;
+import util.CsvUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs call() on the test thread against a stub database. The JavaFX progress and
+// message updates are dropped, since there is no toolkit to post them to.
+class CsvImportTaskTest {
+
+    private static class StubDb extends DbConnectivityClass {
+        final List<List<String>> batches = new ArrayList<>();
+
+        @Override
+        public void upsertBatch(List<Person> batch) {
+            List<String> emails = new ArrayList<>();
+            for (Person p : batch) {
+                emails.add(p.getEmail());
+            }
+            batches.add(emails);
+        }
+    }
+
+    private static class QuietTask extends CsvImportTask {
+        QuietTask(Path file, DbConnectivityClass cnUtil, int batchSize) {
+            super(file.toFile(), cnUtil, batchSize, null);
+        }
+
+        @Override
+        protected void updateProgress(long done, long max) {
+        }
+
+        @Override
+        protected void updateProgress(double done, double max) {
+        }
+
+        @Override
+        protected void updateMessage(String message) {
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rejectsBadShortAndRepeatedRowsInFileOrder() throws Exception {
+        Path csv = write("import.csv",
+                CsvUtils.HEADER,
+                "Ada,Lovelace,Mathematics,Mathematics,ada@example.com,",
+                " Grace , Hopper ,Computer Systems,CS,grace@example.com,file:/g.png",
+                "Bad,X,Mathematics,Mathematics,bad,",
+                "Short,Row,Physics",
+                "Ada,Again,Mathematics,Mathematics,ADA@example.com,",
+                "\"Mary\nAnn\",Smith,Physics,Physics,mary@example.com,",
+                "Grace,Again,Physics,Physics,grace@example.com,",
+                "Zed,Last,Physics,Physics,zed@example.com,x");
+        StubDb db = new StubDb();
+        // A batch of 2 spreads the repeats over different chunks
+        QuietTask task = new QuietTask(csv, db, 2);
+
+        assertEquals(4, task.call());
+        assertEquals(List.of(List.of("ada@example.com", "grace@example.com"),
+                List.of("mary@example.com", "zed@example.com")), db.batches);
+        assertEquals(4, task.getRejected());
+
+        List<String[]> report = read(task.getReportFile().toPath());
+        assertEquals(5, report.size());
+        assertArrayEquals(("Line,Reason," + CsvUtils.HEADER).split(","), report.get(0));
+        assertArrayEquals(new String[]{"4", "Last name must be 2-50 characters; Email must look like name@example.com",
+                "Bad", "X", "Mathematics", "Mathematics", "bad", ""}, report.get(1));
+        assertArrayEquals(new String[]{"5", "Expected 6 fields, found 3", "Short", "Row", "Physics"}, report.get(2));
+        assertArrayEquals(new String[]{"6", "Duplicate email, first used on line 2",
+                "Ada", "Again", "Mathematics", "Mathematics", "ADA@example.com", ""}, report.get(3));
+        // Line 7 holds a two-line record, so the repeat of line 3 is on line 9
+        assertArrayEquals(new String[]{"9", "Duplicate email, first used on line 3",
+                "Grace", "Again", "Physics", "Physics", "grace@example.com", ""}, report.get(4));
+    }
+
+    @Test
+    void cleanFileLeavesNoReport() throws Exception {
+        Path csv = write("clean.csv",
+                CsvUtils.HEADER,
+                "Ada,Lovelace,Mathematics,Mathematics,ada@example.com,");
+        // A report left over from an earlier import of the same file is removed
+        Files.writeString(dir.resolve("clean.rejected.csv"), "old");
+        StubDb db = new StubDb();
+        QuietTask task = new QuietTask(csv, db, CsvImportTask.DEFAULT_BATCH_SIZE);
+
+        assertEquals(1, task.call());
+        assertEquals(List.of(List.of("ada@example.com")), db.batches);
+        assertEquals(0, task.getRejected());
+        assertFalse(Files.exists(dir.resolve("clean.rejected.csv")));
+    }
+
+    @Test
+    void unreadableFileFailsTheImport() {
+        StubDb db = new StubDb();
+        QuietTask task = new QuietTask(dir.resolve("missing.csv"), db, 2);
+        IOException e = assertThrows(IOException.class, task::call);
+        assertTrue(e.getMessage().startsWith("Failed to read missing.csv"), e.getMessage());
+        assertEquals(List.of(), db.batches);
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.writeString(dir.resolve(name), String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+    }
+
+    private static List<String[]> read(Path file) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            String[] record;
+            while ((record = reader.readRecord()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,151 @@
+package service;
+
+import model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// search() against a scan of every live row, through adds, edits and deletes. The
+// deletes come in phases that remove most rows, so the postings are rebuilt too.
+class PersonSearchIndexTest {
+
+    // Few letters and some separators, so grams collide and words start everywhere
+    private static final String ALPHABET = "abcAB -.@&1";
+
+    @Test
+    void matchesAScanOfTheLiveRows() {
+        Random random = new Random(1103);
+        PersonSearchIndex index = new PersonSearchIndex();
+        Map<Integer, Person> rows = new HashMap<>();
+        for (int step = 0; step < 6_000; step++) {
+            // Grow for a while, then delete most rows, and again
+            boolean shrinking = step / 1_000 % 2 == 1;
+            int id = random.nextInt(400);
+            if (random.nextInt(10) < (shrinking ? 8 : 3)) {
+                index.remove(id);
+                rows.remove(id);
+            } else {
+                // A new row, or an edit of an existing one
+                Person p = randomPerson(random, id);
+                index.add(p);
+                rows.put(id, p);
+            }
+            if (step % 50 == 0) {
+                assertEquals(rows.size(), index.size());
+                for (int i = 0; i < 20; i++) {
+                    String query = randomQuery(random, rows);
+                    BitSet expected = scan(rows, query);
+                    assertEquals(expected, index.search(query), () -> "query \"" + query + "\"");
+                    // The rule used for rows that aren't indexed must agree
+                    for (Person p : rows.values()) {
+                        assertEquals(expected == null || expected.get(p.getId()), PersonSearchIndex.matches(p, query),
+                                () -> "query \"" + query + "\" on " + p.getFirstName() + " " + p.getLastName());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shortQueriesMatchWordStarts() {
+        PersonSearchIndex index = new PersonSearchIndex();
+        index.add(new Person(1, "Ada", "Lovelace", "Mathematics", "Math", "ada@example.com", null));
+        index.add(new Person(2, "Grace", "Hopper", "Computer Systems", "CS", "g.hopper@navy.mil", null));
+        assertEquals(bits(1, 2), index.search("m"));
+        assertEquals(bits(2), index.search("Ho"));
+        assertEquals(bits(), index.search("ov"));
+        assertEquals(bits(1), index.search("ovelace"));
+        assertEquals(bits(1), index.search(" ada lov "));
+        assertEquals(bits(), index.search("lace mat"), "a query never spans two fields");
+        assertEquals(bits(), index.search("@"), "punctuation doesn't start a word");
+        assertNull(index.search("  "));
+        assertTrue(PersonSearchIndex.matches(new Person("New", "Row", null, null, "new@example.com", null), "ro"));
+    }
+
+    @Test
+    void clearForgetsEverything() {
+        PersonSearchIndex index = new PersonSearchIndex();
+        index.add(new Person(1, "Ada", "Lovelace", null, null, "ada@example.com", null));
+        index.add(new Person(null, "Not", "Indexed", null, null, "x@example.com", null));
+        assertEquals(1, index.size());
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(bits(), index.search("ada"));
+    }
+
+    private static Person randomPerson(Random random, int id) {
+        return new Person(id, word(random, 6), word(random, 6), random.nextInt(5) == 0 ? null : word(random, 8),
+                random.nextInt(5) == 0 ? null : word(random, 4), word(random, 4) + "@" + word(random, 4), null);
+    }
+
+    private static String word(Random random, int maxLength) {
+        StringBuilder s = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            s.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return s.toString();
+    }
+
+    // Half random strings, half pieces of a live row's fields (so most of those match)
+    private static String randomQuery(Random random, Map<Integer, Person> rows) {
+        if (rows.isEmpty() || random.nextBoolean()) {
+            return word(random, 4);
+        }
+        Person p = rows.values().stream().skip(random.nextInt(rows.size())).findFirst().orElseThrow();
+        String field = p.getFirstName() + " " + p.getLastName();
+        if (field.isEmpty()) {
+            return field;
+        }
+        int start = random.nextInt(field.length());
+        String query = field.substring(start, Math.min(field.length(), start + 1 + random.nextInt(4)));
+        return random.nextBoolean() ? query.toUpperCase(Locale.ROOT) : query;
+    }
+
+    private static BitSet scan(Map<Integer, Person> rows, String query) {
+        String q = query.toLowerCase(Locale.ROOT).trim();
+        if (q.isEmpty()) {
+            return null;
+        }
+        BitSet expected = new BitSet();
+        for (Person p : rows.values()) {
+            String[] fields = {p.getFirstName() + " " + p.getLastName(), p.getEmail(), p.getDepartment(), p.getMajor()};
+            for (String field : fields) {
+                if (field != null && fieldMatches(field.toLowerCase(Locale.ROOT), q)) {
+                    expected.set(p.getId());
+                }
+            }
+        }
+        return expected;
+    }
+
+    // Three or more characters anywhere; shorter ones only at the start of a word
+    private static boolean fieldMatches(String field, String q) {
+        if (q.length() >= 3) {
+            return field.contains(q);
+        }
+        for (int i = 0; i + q.length() <= field.length(); i++) {
+            if (field.startsWith(q, i) && Character.isLetterOrDigit(field.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(field.charAt(i - 1)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
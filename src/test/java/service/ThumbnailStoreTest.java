@@ -0,0 +1,162 @@
+package service;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Each test works on its own store directory; thumbnails are 10x10, so 400 bytes each.
+class ThumbnailStoreTest {
+
+    private static final int SIZE = 10;
+    private static final long REGION = SIZE * SIZE * 4;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void thumbnailsSurviveAReopen() throws IOException {
+        ThumbnailStore store = new ThumbnailStore(dir, 10 * REGION);
+        store.put(url(1), 1, SIZE, SIZE, image(1));
+        store.put(url(2), 2, SIZE, SIZE, image(2));
+        assertPixels(1, store.get(url(1), SIZE, SIZE));
+        assertNull(store.get(url(1), SIZE + 1, SIZE), "stored per display size");
+        assertThrows(IOException.class, () -> new ThumbnailStore(dir, 10 * REGION), "the directory is locked");
+        store.close();
+
+        store = new ThumbnailStore(dir, 10 * REGION);
+        assertPixels(1, store.get(url(1), SIZE, SIZE));
+        assertPixels(2, store.get(url(2), SIZE, SIZE));
+        assertNull(store.get(url(3), SIZE, SIZE));
+        // Same content under another URL reuses the stored pixels
+        assertPixels(2, store.getByContent(url(3), 2, SIZE, SIZE));
+        assertPixels(2, store.get(url(3), SIZE, SIZE));
+        store.close();
+    }
+
+    @Test
+    void compactionKeepsTheMostRecentlyUsed() throws IOException, InterruptedException {
+        // Room for 5; a compaction keeps 3 (COMPACTION_KEEP of the cap)
+        ThumbnailStore store = new ThumbnailStore(dir, 5 * REGION);
+        for (int i = 1; i <= 5; i++) {
+            store.put(url(i), i, SIZE, SIZE, image(i));
+            Thread.sleep(5);
+        }
+        assertPixels(1, store.get(url(1), SIZE, SIZE));
+        Thread.sleep(5);
+
+        store.put(url(6), 6, SIZE, SIZE, image(6));
+        assertNull(store.get(url(2), SIZE, SIZE));
+        assertNull(store.get(url(3), SIZE, SIZE));
+        for (int i : new int[]{1, 4, 5, 6}) {
+            assertPixels(i, store.get(url(i), SIZE, SIZE));
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.filter(f -> f.getFileName().toString().endsWith(".dat")).count(),
+                    "the old generation is deleted");
+        }
+        store.close();
+
+        // The rewritten index points at the moved regions
+        store = new ThumbnailStore(dir, 5 * REGION);
+        assertNull(store.get(url(2), SIZE, SIZE));
+        for (int i : new int[]{1, 4, 5, 6}) {
+            assertPixels(i, store.get(url(i), SIZE, SIZE));
+        }
+        store.close();
+    }
+
+    @Test
+    void tornLastIndexRecordIsDropped() throws IOException {
+        ThumbnailStore store = new ThumbnailStore(dir, 10 * REGION);
+        store.put(url(1), 1, SIZE, SIZE, image(1));
+        store.put(url(2), 2, SIZE, SIZE, image(2));
+        store.close();
+        // As if the process died while appending a record
+        try (DataOutputStream out = new DataOutputStream(
+                Files.newOutputStream(dir.resolve("thumbnails.idx"), StandardOpenOption.APPEND))) {
+            out.writeUTF(url(3));
+            out.writeInt(SIZE);
+        }
+
+        store = new ThumbnailStore(dir, 10 * REGION);
+        assertPixels(1, store.get(url(1), SIZE, SIZE));
+        assertPixels(2, store.get(url(2), SIZE, SIZE));
+        assertNull(store.get(url(3), SIZE, SIZE));
+        store.put(url(4), 4, SIZE, SIZE, image(4));
+
+        // Crash again without close(): a copy of the files as they are now must
+        // still have the record appended after the torn one
+        Path copy = Files.createDirectory(dir.resolve("copy"));
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.copy(file, copy.resolve(file.getFileName()));
+            }
+        }
+        store.close();
+        ThumbnailStore recovered = new ThumbnailStore(copy, 10 * REGION);
+        assertPixels(4, recovered.get(url(4), SIZE, SIZE));
+        assertPixels(1, recovered.get(url(1), SIZE, SIZE));
+        recovered.close();
+    }
+
+    @Test
+    void changedOrMissingSourceFileIsAMiss() throws IOException {
+        Path source = Files.write(dir.resolve("photo.png"), new byte[]{1, 2, 3});
+        String url = source.toUri().toString();
+        ThumbnailStore store = new ThumbnailStore(dir.resolve("store"), 10 * REGION);
+        store.put(url, 1, SIZE, SIZE, image(1));
+        assertPixels(1, store.get(url, SIZE, SIZE));
+
+        Files.write(source, new byte[]{1, 2, 3, 4});
+        assertNull(store.get(url, SIZE, SIZE));
+
+        // Stored while the file can't be read: both stamps are unknown, which is no match
+        String missing = dir.resolve("missing.png").toUri().toString();
+        store.put(missing, 2, SIZE, SIZE, image(2));
+        assertNull(store.get(missing, SIZE, SIZE));
+        store.close();
+    }
+
+    private static String url(int i) {
+        return "https://example.com/" + i + ".png";
+    }
+
+    // Opaque, so premultiplied and straight ARGB are the same
+    private static Image image(int seed) {
+        WritableImage image = new WritableImage(SIZE, SIZE);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                image.getPixelWriter().setArgb(x, y, argb(seed, x, y));
+            }
+        }
+        return image;
+    }
+
+    private static int argb(int seed, int x, int y) {
+        return 0xFF000000 | seed << 16 | x << 8 | y;
+    }
+
+    private static void assertPixels(int seed, Image image) {
+        assertNotNull(image, "thumbnail " + seed);
+        PixelReader reader = image.getPixelReader();
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                assertEquals(argb(seed, x, y), reader.getArgb(x, y), "thumbnail " + seed + " at " + x + "," + y);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTest {
+
+    @Test
+    void everyLineEnding() throws IOException {
+        for (String eol : new String[]{"\n", "\r\n", "\r"}) {
+            CsvReader reader = reader("a,b" + eol + "c,d" + eol);
+            assertArrayEquals(new String[]{"a", "b"}, reader.readRecord(), escape(eol));
+            assertArrayEquals(new String[]{"c", "d"}, reader.readRecord(), escape(eol));
+            assertNull(reader.readRecord(), escape(eol));
+        }
+        // No line ending after the last record
+        CsvReader reader = reader("a,b\nc,d");
+        reader.readRecord();
+        assertArrayEquals(new String[]{"c", "d"}, reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void quotedLineBreaksStayInTheField() throws IOException {
+        CsvReader reader = reader("\"1\n2\",\"3\r\n4\",\"5\r6\",x\n");
+        assertArrayEquals(new String[]{"1\n2", "3\r\n4", "5\r6", "x"}, reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void doubledQuotesAndCommasInQuotes() throws IOException {
+        CsvReader reader = reader("\"say \"\"hi\"\"\",\"a,b\",\"\"\"\",\"\"\n");
+        assertArrayEquals(new String[]{"say \"hi\"", "a,b", "\"", ""}, reader.readRecord());
+        // A quote inside an unquoted field is just a character
+        reader = reader("O\"Neil,b\n");
+        assertArrayEquals(new String[]{"O\"Neil", "b"}, reader.readRecord());
+    }
+
+    @Test
+    void emptyFields() throws IOException {
+        CsvReader reader = reader("a,\n,b\n,\n\n");
+        assertArrayEquals(new String[]{"a", ""}, reader.readRecord());
+        assertArrayEquals(new String[]{"", "b"}, reader.readRecord());
+        assertArrayEquals(new String[]{"", ""}, reader.readRecord());
+        assertArrayEquals(new String[]{""}, reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void recordLinesCountLineBreaksInsideQuotes() throws IOException {
+        CsvReader reader = reader("h\n\"a\nb\nc\",x\r\n\"d\r\ne\"\r\"f\rg\"\nlast");
+        int[] expected = {1, 2, 5, 7, 9};
+        for (int line : expected) {
+            reader.readRecord();
+            assertEquals(line, reader.getRecordLine());
+        }
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void unterminatedQuoteNamesItsLine() throws IOException {
+        CsvReader reader = reader("a\nb\n\"c,d\ne\n");
+        reader.readRecord();
+        reader.readRecord();
+        IOException e = assertThrows(IOException.class, reader::readRecord);
+        assertTrue(e.getMessage().contains("line 3"), e.getMessage());
+    }
+
+    // Random fields written with CsvUtils.escape, read back one char per read() so
+    // every CR/LF and doubled quote also lands on a buffer boundary.
+    @Test
+    void readsWhatEscapeWrites() throws IOException {
+        String alphabet = "ab,\"\r\n ";
+        Random random = new Random(4180);
+        List<String[]> records = new ArrayList<>();
+        StringBuilder csv = new StringBuilder();
+        for (int r = 0; r < 2_000; r++) {
+            String[] record = new String[1 + random.nextInt(4)];
+            for (int f = 0; f < record.length; f++) {
+                StringBuilder value = new StringBuilder();
+                int length = random.nextInt(6);
+                for (int i = 0; i < length; i++) {
+                    value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                record[f] = value.toString();
+                csv.append(f == 0 ? "" : ",").append(CsvUtils.escape(record[f]));
+            }
+            // A single empty field would be written as an empty line, which reads back the same
+            csv.append(random.nextBoolean() ? "\r\n" : "\n");
+            records.add(record);
+        }
+        CsvReader reader = new CsvReader(new OneCharReader(csv.toString()));
+        for (String[] record : records) {
+            assertArrayEquals(record, reader.readRecord());
+        }
+        assertNull(reader.readRecord());
+        assertEquals(csv.length(), reader.getCharsRead());
+    }
+
+    private static CsvReader reader(String csv) {
+        return new CsvReader(new StringReader(csv));
+    }
+
+    private static String escape(String s) {
+        return s.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    private static class OneCharReader extends Reader {
+        private final String text;
+        private int pos;
+
+        OneCharReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (pos == text.length()) {
+                return -1;
+            }
+            buffer[offset] = text.charAt(pos++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import util.FormValidator.Field;
+import util.FormValidator.Problem;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The scanners in FormValidator must accept exactly what the regexes ValidationUtils
+// used before them did.
+class FormValidatorTest {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$");
+    private static final Pattern NAME_PATTERN = Pattern.compile("^[A-Za-z\\s\\-']{2,50}$");
+    private static final Pattern DEPARTMENT_PATTERN = Pattern.compile("^[A-Za-z\\s\\-&]{2,50}$");
+
+    @Test
+    void emailTldLengthBounds() {
+        assertSameAsRegex(Field.EMAIL, EMAIL_PATTERN,
+                "a@b.c", "a@b.co", "a@b.abcdef", "a@b.abcdefg", "a@b.c1", "a@b.co1", "a@b.", "a@b.co.",
+                "a@b.co.u", "a@b.co.uk", "a@b.co.abcdefg", "a@example.com", "a@.co", "a@b..co", "a@-.co");
+        assertEquals(Problem.BAD_FORMAT, Field.EMAIL.check("a@b.abcdefg"));
+        assertTrue(Field.EMAIL.isValid("a@b.abcdef"));
+    }
+
+    @Test
+    void emailAtSigns() {
+        assertSameAsRegex(Field.EMAIL, EMAIL_PATTERN,
+                "@b.co", "@", "a@", "a@@b.co", "a@b@c.co", "a@b.co@", "@@", "a.b@c.co", "a+b%c@d.co");
+        assertEquals(Problem.BAD_FORMAT, Field.EMAIL.check("@b.co"));
+        assertEquals(Problem.BAD_FORMAT, Field.EMAIL.check("a@b@c.co"));
+    }
+
+    @Test
+    void emailOtherCharacters() {
+        assertSameAsRegex(Field.EMAIL, EMAIL_PATTERN,
+                "a b@c.co", "a@b c.co", "a\u000B@b.co", "é@b.co", "a@é.co", "a@b.cé", "a@b.c_o", "a@b_c.co",
+                "a\n@b.co", "a@b.co\n");
+    }
+
+    @Test
+    void nameLengthBounds() {
+        assertSameAsRegex(Field.FIRST_NAME, NAME_PATTERN,
+                "A", "Al", "A".repeat(50), "A".repeat(51), "  ", "O'Neil", "Jean-Luc", "Mary Ann");
+        assertEquals(Problem.TOO_SHORT, Field.FIRST_NAME.check("A"));
+        assertEquals(Problem.TOO_LONG, Field.LAST_NAME.check("A".repeat(51)));
+        assertEquals(Problem.MISSING, Field.FIRST_NAME.check(""));
+        assertEquals(Problem.MISSING, Field.FIRST_NAME.check(null));
+    }
+
+    @Test
+    void regexWhitespaceIncludesVerticalTab() {
+        assertSameAsRegex(Field.FIRST_NAME, NAME_PATTERN, "A\u000BB", "A\tB", "A\fB", "A\rB", "A\nB", "A B", "A B");
+        assertSameAsRegex(Field.DEPARTMENT, DEPARTMENT_PATTERN, "A\u000BB", "A B");
+        assertTrue(Field.FIRST_NAME.isValid("A\u000BB"));
+    }
+
+    @Test
+    void nonAsciiLettersAreRejected() {
+        assertSameAsRegex(Field.FIRST_NAME, NAME_PATTERN, "José", "Zoë", "Łukasz", "Ａb", "ab́");
+        assertSameAsRegex(Field.DEPARTMENT, DEPARTMENT_PATTERN, "Génie", "Arts & Sciences", "R&D", "Math-Physics", "O'Neil");
+        assertEquals(Problem.BAD_CHARACTER, Field.FIRST_NAME.check("José"));
+    }
+
+    // Random strings over the characters the rules care about, plus a few they reject.
+    @Test
+    void randomInputsMatchTheRegexes() {
+        String alphabet = "aZz09._%+-@&' \t\u000B é";
+        Random random = new Random(311);
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            value.setLength(0);
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String s = value.toString();
+            assertSameAsRegex(Field.EMAIL, EMAIL_PATTERN, s);
+            assertSameAsRegex(Field.FIRST_NAME, NAME_PATTERN, s);
+            assertSameAsRegex(Field.DEPARTMENT, DEPARTMENT_PATTERN, s);
+        }
+    }
+
+    @Test
+    void formTracksEachField() {
+        FormValidator form = new FormValidator(Field.FIRST_NAME, Field.EMAIL);
+        assertFalse(form.isValid());
+        assertTrue(form.update(Field.FIRST_NAME, "Ada"));
+        assertFalse(form.isValid());
+        assertFalse(form.update(Field.EMAIL, "ada@"));
+        assertEquals("Email must look like name@example.com\n", form.getErrors());
+        assertTrue(form.update(Field.EMAIL, "ada@example.com"));
+        assertTrue(form.isValid());
+        assertNull(form.getError(Field.EMAIL));
+        assertEquals("", form.getErrors());
+    }
+
+    private static void assertSameAsRegex(Field field, Pattern pattern, String... values) {
+        for (String value : values) {
+            assertEquals(pattern.matcher(value).matches(), field.isValid(value),
+                    () -> field + " disagrees with " + pattern + " on \"" + escape(value) + "\"");
+        }
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            escaped.append(c >= 32 && c < 127 ? String.valueOf(c) : String.format("\\u%04X", (int) c));
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package viewmodel;
+
+import dao.UserQuery;
+import model.Person;
+import model.PersonColumns;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+// computeOrder's merge sort against List.sort with the same ordering: the column
+// ignoring case, nulls first, ties by id.
+class ColumnarPersonListTest {
+
+    private static final String[] DEPARTMENTS = {"Computer Systems", "english", "English & Humanities", "Mathematics"};
+    private static final String[] MAJORS = {"Computer Science", "CPIS", "English", "Physics"};
+
+    @Test
+    void sortsLikeAComparatorInEveryOrder() {
+        PersonColumns columns = randomColumns(5_000, 42);
+        for (UserQuery.SortColumn sortColumn : UserQuery.SortColumn.values()) {
+            for (boolean descending : new boolean[]{false, true}) {
+                UserQuery q = new UserQuery().sortBy(sortColumn, descending);
+                assertArrayEquals(expectedOrder(columns, q), ColumnarPersonList.computeOrder(columns, q),
+                        sortColumn + (descending ? " descending" : ""));
+            }
+        }
+    }
+
+    @Test
+    void leavesOutDeletedAndFilteredRows() {
+        PersonColumns columns = randomColumns(2_000, 7);
+        for (int row = 0; row < columns.size(); row += 3) {
+            columns.delete(row);
+        }
+        UserQuery q = new UserQuery().lastNamePrefix("b").department("english").sortBy(UserQuery.SortColumn.FIRST_NAME, false);
+        assertArrayEquals(expectedOrder(columns, q), ColumnarPersonList.computeOrder(columns, q));
+        q = new UserQuery().sortBy(UserQuery.SortColumn.EMAIL, true);
+        assertArrayEquals(expectedOrder(columns, q), ColumnarPersonList.computeOrder(columns, q));
+    }
+
+    @Test
+    void handlesSortedReversedAndTinyInputs() {
+        for (int rows : new int[]{0, 1, 2, 15, 16, 17, 1_000}) {
+            PersonColumns ascending = new PersonColumns(rows);
+            PersonColumns reversed = new PersonColumns(rows);
+            for (int i = 0; i < rows; i++) {
+                ascending.append(i, "n" + (10_000 + i), "x", null, null, i + "@example.com", null);
+                reversed.append(i, "n" + (10_000 - i), "x", null, null, i + "@example.com", null);
+            }
+            for (PersonColumns columns : new PersonColumns[]{ascending, reversed}) {
+                for (UserQuery.SortColumn sortColumn : new UserQuery.SortColumn[]{UserQuery.SortColumn.ID,
+                        UserQuery.SortColumn.FIRST_NAME, UserQuery.SortColumn.LAST_NAME}) {
+                    UserQuery q = new UserQuery().sortBy(sortColumn, false);
+                    assertArrayEquals(expectedOrder(columns, q), ColumnarPersonList.computeOrder(columns, q),
+                            rows + " rows by " + sortColumn);
+                }
+            }
+        }
+    }
+
+    // Letters only, so ASCII case folding and String.CASE_INSENSITIVE_ORDER agree.
+    private static PersonColumns randomColumns(int rows, long seed) {
+        Random random = new Random(seed);
+        PersonColumns columns = new PersonColumns(rows);
+        for (int i = 0; i < rows; i++) {
+            // Ids out of append order, and few distinct names, so ties are common
+            int id = rows * 2 - i * 2 + random.nextInt(2);
+            columns.append(id, random.nextInt(10) == 0 ? null : word(random),
+                    word(random), random.nextInt(8) == 0 ? null : DEPARTMENTS[random.nextInt(DEPARTMENTS.length)],
+                    MAJORS[random.nextInt(MAJORS.length)], word(random) + "@" + word(random) + ".edu", null);
+        }
+        return columns;
+    }
+
+    private static String word(Random random) {
+        char[] chars = new char[1 + random.nextInt(3)];
+        for (int i = 0; i < chars.length; i++) {
+            char c = (char) ('a' + random.nextInt(3));
+            chars[i] = random.nextBoolean() ? Character.toUpperCase(c) : c;
+        }
+        return new String(chars);
+    }
+
+    private static int[] expectedOrder(PersonColumns columns, UserQuery q) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < columns.size(); row++) {
+            if (!columns.isDeleted(row) && q.matches(columns.row(row))) {
+                rows.add(row);
+            }
+        }
+        Comparator<Integer> byColumn = Comparator.comparing(valueOf(columns, q.getSortColumn()),
+                Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+        if (q.isDescending()) {
+            byColumn = byColumn.reversed();
+        }
+        rows.sort(byColumn.thenComparingInt(columns::getId));
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static Function<Integer, String> valueOf(PersonColumns columns, UserQuery.SortColumn column) {
+        return switch (column) {
+            case ID -> row -> String.format("%010d", columns.getId(row));
+            case FIRST_NAME -> columns::getFirstName;
+            case LAST_NAME -> columns::getLastName;
+            case DEPARTMENT -> columns::getDepartment;
+            case MAJOR -> columns::getMajor;
+            case EMAIL -> columns::getEmail;
+        };
+    }
+}